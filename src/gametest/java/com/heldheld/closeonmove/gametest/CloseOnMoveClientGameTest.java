@@ -0,0 +1,161 @@
+package com.heldheld.closeonmove.gametest;
+
+import com.heldheld.closeonmove.config.Config;
+import com.heldheld.closeonmove.screen.FocusedTextInput;
+import net.fabricmc.fabric.api.client.gametest.v1.FabricClientGameTest;
+import net.fabricmc.fabric.api.client.gametest.v1.context.ClientGameTestContext;
+import net.fabricmc.fabric.api.client.gametest.v1.context.TestSingleplayerContext;
+import net.fabricmc.fabric.api.client.gametest.v1.input.TestInput;
+import net.minecraft.block.Blocks;
+import net.minecraft.client.gui.screen.Screen;
+import net.minecraft.client.gui.screen.advancement.AdvancementsScreen;
+import net.minecraft.client.gui.screen.ingame.BookScreen;
+import net.minecraft.client.gui.screen.ingame.CreativeInventoryScreen;
+import net.minecraft.client.gui.screen.ingame.GenericContainerScreen;
+import net.minecraft.client.gui.screen.ingame.InventoryScreen;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.List;
+
+// Opens real screens in a singleplayer world and closes them with injected input, in both input modes.
+// Client game tests render exactly one frame per tick, so frames are counted in waited ticks.
+public class CloseOnMoveClientGameTest implements FabricClientGameTest {
+    // The event path closes inside the input callback, the polling path on the next tick
+    private static final int EVENT_MAX_FRAMES = 0;
+    private static final int POLLING_MAX_FRAMES = 1;
+    // How long a screen that must stay open is watched
+    private static final int WATCH_FRAMES = 10;
+
+    @Override
+    public void runTest(ClientGameTestContext context) {
+        try (TestSingleplayerContext singleplayer = context.worldBuilder().create()) {
+            singleplayer.getClientWorld().waitForChunksRender();
+
+            singleplayer.getServer().runCommand("gamemode survival @a");
+            context.waitTick();
+            for (Config.InputMode mode : Config.InputMode.values()) {
+                setInputMode(context, mode);
+
+                context.getInput().pressKey(options -> options.inventoryKey);
+                context.waitForScreen(InventoryScreen.class);
+                assertCloses(context, mode, "Inventory");
+
+                openChest(context, singleplayer);
+                assertCloses(context, mode, "Chest");
+
+                context.getInput().pressKey(options -> options.advancementsKey);
+                context.waitForScreen(AdvancementsScreen.class);
+                assertCloses(context, mode, "Advancements");
+
+                context.setScreen(() -> new BookScreen(new BookScreen.Contents(List.of(Text.literal("CloseOnMove")))));
+                context.waitForScreen(BookScreen.class);
+                assertCloses(context, mode, "Book");
+            }
+            keepsOpenForKeyHeldWhenOpening(context);
+
+            singleplayer.getServer().runCommand("gamemode creative @a");
+            context.waitTick();
+            for (Config.InputMode mode : Config.InputMode.values()) {
+                setInputMode(context, mode);
+                context.getInput().pressKey(options -> options.inventoryKey);
+                context.waitForScreen(CreativeInventoryScreen.class);
+                assertCloses(context, mode, "Creative inventory");
+            }
+            // Last, since the creative inventory reopens on the tab it was left on
+            for (Config.InputMode mode : Config.InputMode.values()) {
+                setInputMode(context, mode);
+                keepsCreativeSearchOpen(context, mode);
+            }
+            setInputMode(context, Config.InputMode.EVENT);
+        }
+    }
+
+    // Places a chest next to the player and opens it from the server, like using the block
+    static void openChest(ClientGameTestContext context, TestSingleplayerContext singleplayer) {
+        singleplayer.getServer().runOnServer(server -> {
+            ServerPlayerEntity player = server.getPlayerManager().getPlayerList().getFirst();
+            ServerWorld world = server.getOverworld();
+            BlockPos pos = player.getBlockPos().north(2);
+            world.setBlockState(pos, Blocks.CHEST.getDefaultState());
+            player.openHandledScreen(world.getBlockState(pos).createScreenHandlerFactory(world, pos));
+        });
+        context.waitForScreen(GenericContainerScreen.class);
+    }
+
+    // Closes the open screen with the forward key: a tap within one tick for the event path, a held key for
+    // polling, which only sees keys that are down when it samples
+    static void assertCloses(ClientGameTestContext context, Config.InputMode mode, String screen) {
+        TestInput input = context.getInput();
+        if (mode == Config.InputMode.EVENT) {
+            input.pressKey(options -> options.forwardKey);
+            assertClosedWithin(context, EVENT_MAX_FRAMES, screen);
+        } else {
+            input.holdKey(options -> options.forwardKey);
+            assertClosedWithin(context, POLLING_MAX_FRAMES, screen);
+            input.releaseKey(options -> options.forwardKey);
+        }
+    }
+
+    private static void assertClosedWithin(ClientGameTestContext context, int maxFrames, String screen) {
+        for (int frames = 0; frames <= maxFrames; frames++) {
+            if (context.computeOnClient(client -> client.currentScreen == null)) {
+                return;
+            }
+            context.waitTick();
+        }
+        throw new AssertionError(screen + " was still open " + maxFrames + " frames after the close key");
+    }
+
+    static void assertStaysOpen(ClientGameTestContext context, Class<? extends Screen> type, String screen) {
+        for (int frame = 1; frame <= WATCH_FRAMES; frame++) {
+            context.waitTick();
+            if (!context.computeOnClient(client -> type.isInstance(client.currentScreen))) {
+                throw new AssertionError(screen + " closed after " + frame + " frames");
+            }
+        }
+    }
+
+    // A key already held when the screen opens was not pressed in it, so it must not close the screen.
+    // Event mode only: polling reports keys that are down on its first sample.
+    private static void keepsOpenForKeyHeldWhenOpening(ClientGameTestContext context) {
+        setInputMode(context, Config.InputMode.EVENT);
+        TestInput input = context.getInput();
+        input.holdKey(options -> options.forwardKey);
+        input.pressKey(options -> options.inventoryKey);
+        context.waitForScreen(InventoryScreen.class);
+        assertStaysOpen(context, InventoryScreen.class, "Inventory opened with the forward key held");
+
+        input.releaseKey(options -> options.forwardKey);
+        assertCloses(context, Config.InputMode.EVENT, "Inventory after the held key was released");
+    }
+
+    // The chat key switches the creative inventory to its search tab and focuses the search box;
+    // close keys typed there must never close the screen
+    private static void keepsCreativeSearchOpen(ClientGameTestContext context, Config.InputMode mode) {
+        TestInput input = context.getInput();
+        input.pressKey(options -> options.inventoryKey);
+        context.waitForScreen(CreativeInventoryScreen.class);
+        input.pressKey(options -> options.chatKey);
+        context.waitTick();
+        if (!context.computeOnClient(client -> FocusedTextInput.isTyping())) {
+            throw new AssertionError("Creative search box is not focused");
+        }
+
+        String screen = "Creative search in " + mode + " mode";
+        input.pressKey(options -> options.forwardKey);
+        input.pressKey(options -> options.jumpKey);
+        assertStaysOpen(context, CreativeInventoryScreen.class, screen);
+        input.holdKey(options -> options.forwardKey);
+        assertStaysOpen(context, CreativeInventoryScreen.class, screen);
+        input.releaseKey(options -> options.forwardKey);
+
+        context.setScreen(() -> null);
+    }
+
+    private static void setInputMode(ClientGameTestContext context, Config.InputMode mode) {
+        context.runOnClient(client -> Config.getInstance().setInputMode(mode));
+    }
+}
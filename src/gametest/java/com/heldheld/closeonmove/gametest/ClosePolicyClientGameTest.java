@@ -0,0 +1,57 @@
+package com.heldheld.closeonmove.gametest;
+
+import com.heldheld.closeonmove.config.Config;
+import com.heldheld.closeonmove.network.ClientClosePolicy;
+import net.fabricmc.fabric.api.client.gametest.v1.FabricClientGameTest;
+import net.fabricmc.fabric.api.client.gametest.v1.context.ClientGameTestContext;
+import net.fabricmc.fabric.api.client.gametest.v1.context.TestSingleplayerContext;
+import net.minecraft.client.gui.screen.ingame.GenericContainerScreen;
+
+// Pushes close policies from the integrated server with /closeonmovepolicy and checks that the chest
+// follows them: blocked while a policy blocks it, closable again after clear and after leaving the world.
+public class ClosePolicyClientGameTest implements FabricClientGameTest {
+    @Override
+    public void runTest(ClientGameTestContext context) {
+        try (TestSingleplayerContext singleplayer = context.worldBuilder().create()) {
+            singleplayer.getClientWorld().waitForChunksRender();
+            singleplayer.getServer().runCommand("gamemode survival @a");
+            context.runOnClient(client -> Config.getInstance().setInputMode(Config.InputMode.EVENT));
+
+            sendPolicy(context, singleplayer, "block_screen minecraft:generic_9x3");
+            assertChestStaysOpen(context, singleplayer, "Chest blocked by the server");
+
+            sendPolicy(context, singleplayer, "clear");
+            assertChestCloses(context, singleplayer, "Chest after the policy was cleared");
+
+            sendPolicy(context, singleplayer, "disable");
+            assertChestStaysOpen(context, singleplayer, "Chest with the mod disabled by the server");
+        }
+
+        // The policy belongs to the server; leaving the world drops it
+        try (TestSingleplayerContext singleplayer = context.worldBuilder().create()) {
+            singleplayer.getClientWorld().waitForChunksRender();
+            singleplayer.getServer().runCommand("gamemode survival @a");
+            assertChestCloses(context, singleplayer, "Chest after leaving the world with a policy");
+        }
+    }
+
+    // Runs the command as the player, so @s targets them, and waits until the client has compiled the policy
+    private static void sendPolicy(ClientGameTestContext context, TestSingleplayerContext singleplayer, String change) {
+        ClientClosePolicy previous = context.computeOnClient(client -> ClientClosePolicy.current());
+        singleplayer.getServer().runCommand("execute as @a run closeonmovepolicy @s " + change);
+        context.waitFor(client -> ClientClosePolicy.current() != previous);
+    }
+
+    private static void assertChestStaysOpen(ClientGameTestContext context, TestSingleplayerContext singleplayer, String screen) {
+        CloseOnMoveClientGameTest.openChest(context, singleplayer);
+        context.getInput().pressKey(options -> options.forwardKey);
+        CloseOnMoveClientGameTest.assertStaysOpen(context, GenericContainerScreen.class, screen);
+        context.runOnClient(client -> client.player.closeHandledScreen());
+        context.waitTick();
+    }
+
+    private static void assertChestCloses(ClientGameTestContext context, TestSingleplayerContext singleplayer, String screen) {
+        CloseOnMoveClientGameTest.openChest(context, singleplayer);
+        CloseOnMoveClientGameTest.assertCloses(context, Config.InputMode.EVENT, screen);
+    }
+}
@@ -0,0 +1,140 @@
+package com.heldheld.closeonmove;
+
+import com.heldheld.closeonmove.config.CloseKeySet;
+import com.heldheld.closeonmove.config.CloseRules;
+import com.heldheld.closeonmove.config.Config;
+import com.heldheld.closeonmove.debug.Metrics;
+import com.heldheld.closeonmove.input.InputSource;
+import com.heldheld.closeonmove.input.KeyStateTracker;
+import com.heldheld.closeonmove.network.ClientClosePolicy;
+import com.heldheld.closeonmove.screen.ClosePlan;
+import com.heldheld.closeonmove.screen.SyntheticWidgets;
+import net.minecraft.client.gui.ParentElement;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+// Drives the close decision's tick and input paths thousands of times against a synthetic screen and fails
+// when the steady state allocates more than the budget (bytes per iteration, 0 by default).
+// Run by ./gradlew check via checkAllocationBudget.
+public class AllocationBudgetCheck {
+    private static final int WARMUP_ITERATIONS = 50_000;
+    private static final int MEASURED_ITERATIONS = 10_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final boolean[] pressed = new boolean[KeyStateTracker.SIZE];
+    private final InputSource input = new InputSource() {
+        @Override
+        public boolean isKeyDown(int keyCode) {
+            return pressed[keyCode];
+        }
+
+        @Override
+        public boolean isMouseButtonDown(int button) {
+            return pressed[button];
+        }
+    };
+
+    // Nothing in it is focused, so every decision runs the whole scan and then closes
+    private final ParentElement screen = SyntheticWidgets.screen(3, 8);
+    private ClosePlan.FocusProbe focusProbe;
+    private final CloseDecision.Host host = new CloseDecision.Host() {
+        @Override
+        public ParentElement currentScreen() {
+            return screen;
+        }
+
+        @Override
+        public boolean isInWorld() {
+            return true;
+        }
+
+        @Override
+        public boolean isTyping() {
+            return false;
+        }
+
+        @Override
+        public ClosePlan buildPlan(ParentElement screen, CloseRules rules, ClientClosePolicy policy) {
+            return ClosePlan.of(true, focusProbe, rules.getDefaultKeys(), rules, policy);
+        }
+
+        // The synthetic screen stays open, so the decision keeps closing it
+        @Override
+        public void close(ParentElement screen, int triggerKey) {
+            sink++;
+        }
+    };
+
+    private CloseDecision decision;
+    private int closeKey;
+    private int iteration;
+    // Consumed results, so the JIT cannot drop the measured work
+    private int sink;
+
+    public static void main(String[] args) {
+        double budget = args.length > 0 ? Double.parseDouble(args[0]) : 0.0;
+        AllocationBudgetCheck check = new AllocationBudgetCheck();
+
+        boolean passed = true;
+        for (boolean metrics : new boolean[] {false, true}) {
+            Metrics.enabled = metrics;
+            String suffix = metrics ? " with metrics" : "";
+
+            check.open(Config.InputMode.POLLING, ClosePlan.FocusProbe.FOCUS_TRACKER);
+            passed &= check.measure("polling tick" + suffix, budget, check::tick);
+
+            check.open(Config.InputMode.EVENT, ClosePlan.FocusProbe.FOCUS_TRACKER_AND_SCAN);
+            passed &= check.measure("input event with focus scan" + suffix, budget, check::inputEvent);
+            passed &= check.measure("event tick" + suffix, budget, check::tick);
+        }
+        Metrics.enabled = false;
+
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    // A fresh decision in the given mode, with the synthetic screen open
+    private void open(Config.InputMode mode, ClosePlan.FocusProbe probe) {
+        Config config = Config.fromJson("{\"InputMode\": \"" + mode.name() + "\"}");
+        CloseKeySet keys = config.getCloseKeySet();
+        closeKey = keys.keyboardCode(keys.keyboardCount() - 1);
+        focusProbe = probe;
+        decision = new CloseDecision(config, input, host);
+        decision.onScreenInit(screen);
+    }
+
+    // Holds the close key every other tick, so the polling path sees an edge and closes regularly
+    private void tick() {
+        pressed[closeKey] = (iteration++ & 1) == 0;
+        decision.tick(System.nanoTime());
+    }
+
+    // Alternating presses and releases; every press scans the screen and closes it
+    private void inputEvent() {
+        boolean press = (iteration++ & 1) == 0;
+        pressed[closeKey] = press;
+        sink += decision.onInput(screen, closeKey, press, System.nanoTime()) ? 1 : 0;
+    }
+
+    private boolean measure(String name, double budget, Runnable work) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            work.run();
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            work.run();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        double perIteration = (double) allocated / MEASURED_ITERATIONS;
+        boolean passed = perIteration <= budget;
+        System.out.printf(Locale.ROOT, "%s %s: %.2f bytes per iteration (budget %.2f)%n",
+                passed ? "OK  " : "FAIL", name, perIteration, budget);
+        return passed;
+    }
+}
@@ -0,0 +1,56 @@
+package com.heldheld.closeonmove.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+// Serializing and parsing closeonmove.json, in memory and through the atomic file write
+@State(Scope.Thread)
+public class ConfigRoundTripBenchmark {
+    private Config config;
+    private String json;
+    private Path directory;
+    private Path configFile;
+    private ConfigWriter writer;
+
+    @Setup
+    public void setup() throws IOException {
+        config = new Config();
+        json = config.toJson();
+        directory = Files.createTempDirectory("closeonmove-bench");
+        configFile = directory.resolve("closeonmove.json");
+        writer = new ConfigWriter(configFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public String serialize() {
+        return config.toJson();
+    }
+
+    @Benchmark
+    public Config parse() {
+        return Config.fromJson(json);
+    }
+
+    @Benchmark
+    public Config fileRoundTrip() throws IOException {
+        writer.write(config.toJson());
+        return Config.fromJson(Files.readString(configFile, StandardCharsets.UTF_8));
+    }
+}
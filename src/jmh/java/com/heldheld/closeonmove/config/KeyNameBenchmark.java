@@ -0,0 +1,62 @@
+package com.heldheld.closeonmove.config;
+
+import org.lwjgl.glfw.GLFW;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Key code <-> name conversions used by the config file and the config screen
+@State(Scope.Thread)
+public class KeyNameBenchmark {
+    private Config config;
+    private final KeySearch search = new KeySearch();
+
+    @Setup
+    public void setup() {
+        config = new Config();
+    }
+
+    @Benchmark
+    public String keyName() {
+        return config.getKeyName(GLFW.GLFW_KEY_KP_ENTER);
+    }
+
+    @Benchmark
+    public String unknownKeyName() {
+        return config.getKeyName(GLFW.GLFW_KEY_UNKNOWN);
+    }
+
+    @Benchmark
+    public Integer keyCode() {
+        return config.getKeyCode("Keypad Enter");
+    }
+
+    @Benchmark
+    public Integer keyCodeUpperCase() {
+        return config.getKeyCode("KEYPAD ENTER");
+    }
+
+    @Benchmark
+    public Integer unknownKeyCode() {
+        return config.getKeyCode("KEY_300");
+    }
+
+    // Typing "Left S" into the config screen's search box, one character at a time
+    @Benchmark
+    public int keySearch() {
+        search.update("");
+        search.update("L");
+        search.update("Le");
+        search.update("Lef");
+        search.update("Left");
+        search.update("Left ");
+        search.update("Left S");
+        return search.size();
+    }
+
+    @Benchmark
+    public int allKeyNames() {
+        return config.getAllKeyNames().size();
+    }
+}
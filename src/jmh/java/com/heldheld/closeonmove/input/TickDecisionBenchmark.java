@@ -0,0 +1,61 @@
+package com.heldheld.closeonmove.input;
+
+import com.heldheld.closeonmove.config.CloseKeySet;
+import com.heldheld.closeonmove.config.Config;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Cost of the polling tick decision: sampling every configured key and detecting rising edges
+@State(Scope.Thread)
+public class TickDecisionBenchmark {
+    @Param({"5", "10", "100"})
+    public int keyCount;
+
+    private final PollingCloseDetector detector = new PollingCloseDetector();
+    private final boolean[] pressed = new boolean[KeyStateTracker.SIZE];
+    private final InputSource input = new InputSource() {
+        @Override
+        public boolean isKeyDown(int keyCode) {
+            return pressed[keyCode];
+        }
+
+        @Override
+        public boolean isMouseButtonDown(int button) {
+            return pressed[button];
+        }
+    };
+    private CloseKeySet closeKeys;
+    private int tick;
+
+    @Setup
+    public void setup() {
+        Config config = new Config();
+        List<String> names = new ArrayList<>(config.getAllKeyNames());
+        names.sort(null);
+
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < names.size() && keys.size() < keyCount; i++) {
+            keys.add(config.getKeyCode(names.get(i)));
+        }
+        closeKeys = CloseKeySet.of(keys);
+    }
+
+    // The key sampling behind CloseDecision's polling path, with a simulated key held every other tick
+    @Benchmark
+    public int tick() {
+        int lastKey = closeKeys.keyboardCode(closeKeys.keyboardCount() - 1);
+        pressed[lastKey] = (tick++ & 1) == 0;
+        return detector.sample(closeKeys, input);
+    }
+
+    @Benchmark
+    public boolean isCloseKey() {
+        return closeKeys.contains(closeKeys.keyboardCode(closeKeys.keyboardCount() - 1));
+    }
+}
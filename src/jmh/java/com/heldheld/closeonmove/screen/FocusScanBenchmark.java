@@ -0,0 +1,32 @@
+package com.heldheld.closeonmove.screen;
+
+import net.minecraft.client.gui.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+// Worst case of the widget scan: a synthetic tree without any focused text field, so every node is visited
+@State(Scope.Thread)
+public class FocusScanBenchmark {
+    @Param({"1", "3", "6"})
+    public int depth;
+
+    @Param({"4", "16"})
+    public int width;
+
+    private List<Element> roots;
+
+    @Setup
+    public void setup() {
+        roots = SyntheticWidgets.tree(depth, width);
+    }
+
+    @Benchmark
+    public boolean scan() {
+        return SyntheticWidgets.scan(roots);
+    }
+}
@@ -0,0 +1,86 @@
+package com.heldheld.closeonmove.screen;
+
+import net.minecraft.client.gui.Element;
+import net.minecraft.client.gui.ParentElement;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Widget trees built from plain Element implementations, so the focus scan can run without a game
+public final class SyntheticWidgets {
+    private SyntheticWidgets() {
+    }
+
+    // A tree of the given depth where every container holds `width` children and nothing is focused
+    public static List<Element> tree(int depth, int width) {
+        List<Element> level = new ArrayList<>(width);
+        for (int i = 0; i < width; i++) {
+            level.add(depth > 1 ? new Container(tree(depth - 1, width)) : new Leaf());
+        }
+        return level;
+    }
+
+    // A stand-in for a screen holding tree(depth, width), for driving the close decision without a game
+    public static ParentElement screen(int depth, int width) {
+        return new Container(tree(depth, width));
+    }
+
+    public static boolean scan(List<Element> roots) {
+        return FocusedTextFieldScanner.hasFocusedTextField(roots);
+    }
+
+    private static class Leaf implements Element {
+        // Fields of widget-compatible types, so the compiled probe has getters to run
+        private final Object label = "label";
+        private final List<Object> decorations = List.of("a", "b");
+        private boolean focused;
+
+        @Override
+        public void setFocused(boolean focused) {
+            this.focused = focused;
+        }
+
+        @Override
+        public boolean isFocused() {
+            return focused;
+        }
+    }
+
+    private static class Container implements ParentElement {
+        private final List<Element> children;
+        private boolean dragging;
+        @Nullable
+        private Element focused;
+
+        Container(List<Element> children) {
+            this.children = children;
+        }
+
+        @Override
+        public List<? extends Element> children() {
+            return children;
+        }
+
+        @Override
+        public boolean isDragging() {
+            return dragging;
+        }
+
+        @Override
+        public void setDragging(boolean dragging) {
+            this.dragging = dragging;
+        }
+
+        @Nullable
+        @Override
+        public Element getFocused() {
+            return focused;
+        }
+
+        @Override
+        public void setFocused(@Nullable Element focused) {
+            this.focused = focused;
+        }
+    }
+}
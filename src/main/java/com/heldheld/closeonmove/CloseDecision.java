@@ -0,0 +1,253 @@
+package com.heldheld.closeonmove;
+
+import com.heldheld.closeonmove.config.CloseRules;
+import com.heldheld.closeonmove.config.Config;
+import com.heldheld.closeonmove.debug.Metrics;
+import com.heldheld.closeonmove.debug.jfr.ScreenClosedEvent;
+import com.heldheld.closeonmove.input.InputSource;
+import com.heldheld.closeonmove.input.InputTimestamps;
+import com.heldheld.closeonmove.input.PollingCloseDetector;
+import com.heldheld.closeonmove.input.TriggerMachine;
+import com.heldheld.closeonmove.input.trace.TraceRecorder;
+import com.heldheld.closeonmove.network.ClientClosePolicy;
+import com.heldheld.closeonmove.screen.ClosePlan;
+import com.heldheld.closeonmove.screen.FocusedTextFieldScanner;
+import net.minecraft.client.gui.ParentElement;
+import org.jetbrains.annotations.Nullable;
+
+// Decides which input closes the open screen, for both input modes. Everything it needs from the game goes
+// through Host, so trace replays and the allocation check run this same code without a client.
+// Render thread only.
+public final class CloseDecision {
+    // The game as seen by the close decision
+    public interface Host {
+        // The screen being shown, null when none is
+        @Nullable
+        ParentElement currentScreen();
+
+        boolean isInWorld();
+
+        // Whether the focus tracker has a visible, focused text input
+        boolean isTyping();
+
+        ClosePlan buildPlan(ParentElement screen, CloseRules rules, ClientClosePolicy policy);
+
+        // Closes the screen once the decision is made, forwarding the trigger key to the game if configured
+        void close(ParentElement screen, int triggerKey);
+    }
+
+    private final Config config;
+    private final InputSource inputSource;
+    private final Host host;
+
+    // Key state tracking for the polling path
+    private final PollingCloseDetector closeDetector = new PollingCloseDetector();
+    // Gamepad state tracking for the event path, which gets no callbacks for gamepads
+    private final PollingCloseDetector gamepadDetector = new PollingCloseDetector();
+    // Hold, chord and double-tap state for the event path
+    private final TriggerMachine triggerMachine = new TriggerMachine();
+
+    // Close plan of the screen that was initialized last, dropped again when that screen is removed
+    private ParentElement planScreen;
+    private ClosePlan activePlan;
+
+    public CloseDecision(Config config, InputSource inputSource, Host host) {
+        this.config = config;
+        this.inputSource = inputSource;
+        this.host = host;
+    }
+
+    // Classifies the screen once; the tick and input paths only read the resulting plan
+    public ClosePlan onScreenInit(ParentElement screen) {
+        activePlan = host.buildPlan(screen, config.getCloseRules(), ClientClosePolicy.current());
+        planScreen = screen;
+        if (TraceRecorder.recording) {
+            TraceRecorder.screen(screen.getClass().getName(), activePlan, host.isInWorld());
+        }
+        return activePlan;
+    }
+
+    public void onScreenRemoved(ParentElement screen) {
+        triggerMachine.reset();
+        if (TraceRecorder.recording) {
+            TraceRecorder.screen(null, null, host.isInWorld());
+        }
+        if (planScreen == screen) {
+            planScreen = null;
+            activePlan = null;
+        }
+    }
+
+    private ClosePlan getPlan(ParentElement screen) {
+        if (planScreen != screen) {
+            return null;
+        }
+        // The close keys or rules were changed (e.g. reloaded from disk), or the server sent a new policy,
+        // while this screen was open
+        if (activePlan.getRules() != config.getCloseRules() || activePlan.getPolicy() != ClientClosePolicy.current()) {
+            activePlan = host.buildPlan(screen, config.getCloseRules(), ClientClosePolicy.current());
+            if (TraceRecorder.recording) {
+                TraceRecorder.screen(screen.getClass().getName(), activePlan, host.isInWorld());
+            }
+        }
+        return activePlan;
+    }
+
+    // Event-driven close path: runs inside the GLFW callback, so the screen closes in the same frame as the press.
+    // Returns whether the screen was closed, in which case the input is swallowed.
+    public boolean onInput(ParentElement screen, int keyCode, boolean pressed, long now) {
+        if (config.getInputMode() != Config.InputMode.EVENT) {
+            return false;
+        }
+
+        // Ignore events for a screen that is no longer the active one
+        ClosePlan plan = getPlan(screen);
+        if (plan == null || !plan.isClosable() || host.currentScreen() != screen || !host.isInWorld()) {
+            return false;
+        }
+
+        if (!plan.getKeys().contains(keyCode)) {
+            return false;
+        }
+
+        int triggerKey = pressed
+                ? triggerMachine.onPress(keyCode, now, plan.getTriggers(), inputSource)
+                : triggerMachine.onRelease(keyCode, now, plan.getTriggers());
+        return triggerKey != -1 && closeUnlessTyping(screen, plan, triggerKey);
+    }
+
+    // Once per client tick, before the game handles movement input
+    public void tick(long now) {
+        if (TraceRecorder.recording) {
+            TraceRecorder.tick();
+        }
+        if (!Metrics.enabled) {
+            pollCloseKeys(now);
+            return;
+        }
+        long start = System.nanoTime();
+        pollCloseKeys(now);
+        Metrics.TICK_TIME.record(System.nanoTime() - start);
+    }
+
+    // Polling fallback: samples every configured key once per tick
+    private void pollCloseKeys(long now) {
+        if (config.getInputMode() != Config.InputMode.POLLING) {
+            advanceTriggers(now);
+            pollGamepad(now);
+            return;
+        }
+
+        ParentElement currentScreen = host.currentScreen();
+        ClosePlan plan = currentScreen == null ? null : getPlan(currentScreen);
+
+        // Reset all key states when no relevant screen is open (a no-op once already reset)
+        if (plan == null || !plan.isClosable() || !host.isInWorld()) {
+            closeDetector.reset();
+            return;
+        }
+
+        // Sample every configured movement key or mouse button, then compare against the previous tick
+        int triggerKey = closeDetector.sample(plan.getKeys(), plan.getTriggers(), inputSource, now);
+
+        if (triggerKey != -1) {
+            closeUnlessTyping(currentScreen, plan, triggerKey);
+        }
+    }
+
+    // Hold triggers complete between input events, so the event path checks armed triggers once per tick
+    private void advanceTriggers(long now) {
+        if (!triggerMachine.hasArmed()) {
+            return;
+        }
+
+        ParentElement currentScreen = host.currentScreen();
+        ClosePlan plan = currentScreen == null ? null : getPlan(currentScreen);
+        if (plan == null || !plan.isClosable() || !host.isInWorld()) {
+            triggerMachine.reset();
+            return;
+        }
+
+        int triggerKey = triggerMachine.advance(now, plan.getTriggers());
+        if (triggerKey != -1) {
+            closeUnlessTyping(currentScreen, plan, triggerKey);
+        }
+    }
+
+    // Gamepads have no input callbacks, so the event path samples bound gamepad inputs once per tick
+    private void pollGamepad(long now) {
+        ParentElement currentScreen = host.currentScreen();
+        ClosePlan plan = currentScreen == null ? null : getPlan(currentScreen);
+        if (plan == null || !plan.isClosable() || !host.isInWorld() || plan.getKeys().gamepadCount() == 0) {
+            gamepadDetector.reset();
+            return;
+        }
+
+        int triggerKey = gamepadDetector.sampleGamepad(plan.getKeys(), plan.getTriggers(), inputSource, now);
+        if (triggerKey != -1) {
+            closeUnlessTyping(currentScreen, plan, triggerKey);
+        }
+    }
+
+    private boolean closeUnlessTyping(ParentElement screen, ClosePlan plan, int triggerKey) {
+        if (plan.getPolicy().blocksKey(triggerKey) || isTextFieldFocused(screen, plan)) {
+            return false;
+        }
+        closeScreen(screen, triggerKey);
+        return true;
+    }
+
+    private void closeScreen(ParentElement screen, int triggerKey) {
+        host.close(screen, triggerKey);
+        if (TraceRecorder.recording) {
+            TraceRecorder.close(triggerKey);
+        }
+        if (Metrics.enabled) {
+            Metrics.recordClose(triggerKey);
+        }
+
+        ScreenClosedEvent event = new ScreenClosedEvent();
+        if (event.isEnabled()) {
+            long pressedAt = InputTimestamps.lastPress(triggerKey);
+            event.screenClass = screen.getClass();
+            event.triggerKey = triggerKey;
+            event.inputMode = config.getInputMode().name();
+            event.latency = pressedAt != 0L ? System.nanoTime() - pressedAt : -1L;
+            event.commit();
+        }
+    }
+
+    // Whether the player is typing in the open screen as the close decision sees it, scan included
+    public boolean isTextFieldFocused() {
+        ParentElement currentScreen = host.currentScreen();
+        ClosePlan plan = currentScreen == null ? null : getPlan(currentScreen);
+        if (plan == null || plan.getFocusProbe() == ClosePlan.FocusProbe.NONE) {
+            return host.isTyping();
+        }
+        return isTextFieldFocused(currentScreen, plan);
+    }
+
+    private boolean isTextFieldFocused(ParentElement screen, ClosePlan plan) {
+        switch (plan.getFocusProbe()) {
+            case TEXT_ENTRY_SCREEN:
+                return true;
+            case FOCUS_TRACKER:
+                return host.isTyping();
+            case FOCUS_TRACKER_AND_SCAN:
+                // Check for any focused text fields in the screen (including nested ones)
+                return host.isTyping() || scanForFocusedTextField(screen);
+            default:
+                return false;
+        }
+    }
+
+    private boolean scanForFocusedTextField(ParentElement screen) {
+        if (!Metrics.enabled) {
+            return FocusedTextFieldScanner.hasFocusedTextField(screen);
+        }
+        long start = System.nanoTime();
+        boolean focused = FocusedTextFieldScanner.hasFocusedTextField(screen);
+        Metrics.FOCUS_PROBE_TIME.record(System.nanoTime() - start);
+        return focused;
+    }
+}
@@ -1,6 +1,12 @@
 package com.heldheld.closeonmove;
 
+import com.heldheld.closeonmove.debug.StartupTimes;
+import com.heldheld.closeonmove.network.ClosePolicyCommand;
+import com.heldheld.closeonmove.network.ClosePolicyPayload;
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,10 +21,11 @@ public class CloseOnMove implements ModInitializer {
 
 	@Override
 	public void onInitialize() {
-		// This code runs as soon as Minecraft is in a mod-load-ready state.
-		// However, some things (like resources) may still be uninitialized.
-		// Proceed with mild caution.
-
-		// LOGGER.info("Hello Fabric world!");
+		long start = System.nanoTime();
+		// Both sides need the payload type: servers send the close policy, clients receive it
+		PayloadTypeRegistry.playS2C().register(ClosePolicyPayload.ID, ClosePolicyPayload.CODEC);
+		CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> ClosePolicyCommand.register(dispatcher, registryAccess));
+		ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> ClosePolicyCommand.forget(handler.getPlayer()));
+		StartupTimes.commonInitNanos = System.nanoTime() - start;
 	}
 }
\ No newline at end of file
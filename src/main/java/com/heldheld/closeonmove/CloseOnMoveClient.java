@@ -1,207 +1,164 @@
 package com.heldheld.closeonmove;
 
+import com.heldheld.closeonmove.config.CloseRules;
 import com.heldheld.closeonmove.config.Config;
+import com.heldheld.closeonmove.config.ConfigLoader;
+import com.heldheld.closeonmove.config.ConfigWatcher;
+import com.heldheld.closeonmove.config.KeyLabels;
+import com.heldheld.closeonmove.config.ProfileSwitcher;
+import com.heldheld.closeonmove.debug.MetricsCommand;
+import com.heldheld.closeonmove.debug.StartupTimes;
+import com.heldheld.closeonmove.input.GlfwInputSource;
+import com.heldheld.closeonmove.input.InputSource;
+import com.heldheld.closeonmove.input.KeyRepeat;
+import com.heldheld.closeonmove.input.MovementKeyForwarder;
+import com.heldheld.closeonmove.input.trace.TraceCommand;
+import com.heldheld.closeonmove.input.trace.TraceRecorder;
+import com.heldheld.closeonmove.network.ClientClosePolicy;
+import com.heldheld.closeonmove.screen.ClosePlan;
+import com.heldheld.closeonmove.screen.FocusedTextInput;
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.command.v2.ClientCommandRegistrationCallback;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.fabricmc.fabric.api.client.screen.v1.ScreenEvents;
+import net.fabricmc.fabric.api.client.screen.v1.ScreenKeyboardEvents;
+import net.fabricmc.fabric.api.client.screen.v1.ScreenMouseEvents;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.ParentElement;
 import net.minecraft.client.gui.screen.Screen;
 import net.minecraft.client.gui.screen.ingame.HandledScreen;
-import net.minecraft.client.gui.screen.ingame.BookScreen;
-import net.minecraft.client.gui.screen.advancement.AdvancementsScreen;
-import net.minecraft.client.gui.widget.TextFieldWidget;
-import net.minecraft.client.util.InputUtil;
-import org.lwjgl.glfw.GLFW;
-import java.lang.reflect.Field;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
-public class CloseOnMoveClient implements ClientModInitializer {
+import net.minecraft.client.network.ClientPlayerEntity;
+
+public class CloseOnMoveClient implements ClientModInitializer, CloseDecision.Host {
     private final MinecraftClient client = MinecraftClient.getInstance();
+    // Null until the first tick or screen, see awaitConfig()
     private Config config;
+    private ConfigWatcher configWatcher;
+
+    private InputSource inputSource;
+    // Created with the config; decides which input closes the open screen
+    private CloseDecision closeDecision;
 
-    // Dynamic key state tracking
-    private Map<Integer, Boolean> keyStates = new HashMap<>();
+    private final MovementKeyForwarder movementKeyForwarder = new MovementKeyForwarder(client);
 
     @Override
     public void onInitializeClient() {
-        this.config = Config.getInstance();
-        ClientTickEvents.END_CLIENT_TICK.register(this::onClientTick);
+        long start = System.nanoTime();
+        ConfigLoader.start();
+        // Start of the tick, so a screen closed here no longer blocks this tick's movement input
+        ClientTickEvents.START_CLIENT_TICK.register(this::onClientTick);
+        ClientLifecycleEvents.CLIENT_STOPPING.register(this::onClientStopping);
+        // Widgets are recreated on every init (including resizes), so forget the previously focused one
+        ScreenEvents.BEFORE_INIT.register((client, screen, scaledWidth, scaledHeight) -> FocusedTextInput.clear());
+        ScreenEvents.AFTER_INIT.register(this::onScreenInit);
+        ClientClosePolicy.register();
+        KeyLabels.register();
+        ProfileSwitcher.register();
+        ClientCommandRegistrationCallback.EVENT.register((dispatcher, registryAccess) -> {
+            MetricsCommand.register(dispatcher);
+            TraceCommand.register(dispatcher);
+        });
+        StartupTimes.clientInitNanos = System.nanoTime() - start;
     }
 
-    private boolean isClosableScreen(Screen screen) {
-        // Debug logging to see what screen classes are used
-        String screenClassName = screen.getClass().getSimpleName();
-        String packageName = screen.getClass().getPackage().getName();
-        //CloseOnMove.LOGGER.info("Current screen: " + screenClassName + " in package: " + packageName);
-
-        // Use HandledScreen - this covers inventory, chests, crafting tables, etc.
-        if (screen instanceof HandledScreen) {
-            //CloseOnMove.LOGGER.info("Detected HandledScreen: " + screenClassName);
-            return true;
-        }
-
-        // Check for advancement screens using instanceof
-        if (screen instanceof AdvancementsScreen) {
-            //CloseOnMove.LOGGER.info("Detected advancement screen: " + screenClassName);
-            return true;
-        }
-
-        // Check for book screens using instanceof
-        if (screen instanceof BookScreen) {
-            //CloseOnMove.LOGGER.info("Detected book screen: " + screenClassName);
-            return true;
-        }
-
-        // Check package name as fallback for ingame screens
-        if (packageName.contains("ingame")) {
-            //CloseOnMove.LOGGER.info("Detected ingame screen: " + screenClassName);
-            return true;
+    // The config is read in the background during startup; the first tick (or screen, if one comes first) waits for it
+    private void awaitConfig() {
+        if (config != null) {
+            return;
         }
-
-        //CloseOnMove.LOGGER.info("Screen not closable: " + screenClassName);
-        return false;
+        long start = System.nanoTime();
+        config = Config.getInstance();
+        inputSource = new GlfwInputSource(client, config);
+        closeDecision = new CloseDecision(config, inputSource, this);
+        TraceRecorder.typing = closeDecision::isTextFieldFocused;
+        configWatcher = ConfigWatcher.start(config);
+        StartupTimes.configWaitNanos = System.nanoTime() - start;
+        StartupTimes.report();
     }
 
-    private void onClientTick(MinecraftClient client) {
-        Screen currentScreen = client.currentScreen;
-
-        if (currentScreen == null) {
-            // Reset all key states when no screen is open
-            keyStates.clear();
-            return;
+    private void onClientStopping(MinecraftClient client) {
+        if (configWatcher != null) {
+            configWatcher.stop();
         }
+        Config.flush();
+    }
 
-        // Don't close screens when not in a world
-        if (client.world == null) {
-            keyStates.clear();
-            return;
-        }
+    private void onScreenInit(MinecraftClient client, Screen screen, int scaledWidth, int scaledHeight) {
+        awaitConfig();
+        ClosePlan plan = closeDecision.onScreenInit(screen);
 
-        // Only close relevant screens
-        if (!isClosableScreen(currentScreen)) {
-            keyStates.clear();
+        // Fabric resets per-screen events on every init, so the listeners are re-registered here each time.
+        ScreenEvents.remove(screen).register(this::onScreenRemoved);
+        if (!plan.isClassifiedClosable()) {
             return;
         }
 
-        // Check if any configured movement key or mouse button was pressed
-        List<Integer> closeKeys = config.getCloseKeys();
-        boolean anyKeyPressed = false;
-
-        for (int keyCode : closeKeys) {
-            if (isInputPressedOnce(keyCode)) {
-                anyKeyPressed = true;
-                break;
-            }
-        }
+        // Returning false from an allow* callback swallows the input so the closed screen never sees it.
+        // Key repeats are not new presses: fed to the triggers they would complete double taps of a held key.
+        ScreenKeyboardEvents.allowKeyPress(screen).register((s, key, scancode, modifiers) -> KeyRepeat.isRepeat() || !tryCloseOnInput(s, key, true));
+        ScreenMouseEvents.allowMouseClick(screen).register((s, mouseX, mouseY, button) -> !tryCloseOnInput(s, button, true));
+        // Releases end holds, and may complete a hold whose time ran out between ticks
+        ScreenKeyboardEvents.allowKeyRelease(screen).register((s, key, scancode, modifiers) -> !tryCloseOnInput(s, key, false));
+        ScreenMouseEvents.allowMouseRelease(screen).register((s, mouseX, mouseY, button) -> !tryCloseOnInput(s, button, false));
+    }
 
-        if (anyKeyPressed && !isTextFieldFocused(currentScreen)) {
-            currentScreen.close();
-        }
+    private void onScreenRemoved(Screen screen) {
+        FocusedTextInput.clear();
+        closeDecision.onScreenRemoved(screen);
     }
 
-    private boolean isInputPressedOnce(int keyCode) {
-        boolean isCurrentlyPressed;
+    private boolean tryCloseOnInput(Screen screen, int keyCode, boolean pressed) {
+        return closeDecision.onInput(screen, keyCode, pressed, System.nanoTime());
+    }
 
-        // Check if this is a mouse button (GLFW mouse button codes are 0-7)
-        if (isMouseButton(keyCode)) {
-            isCurrentlyPressed = GLFW.glfwGetMouseButton(client.getWindow().getHandle(), keyCode) == GLFW.GLFW_PRESS;
-        } else {
-            // It's a keyboard key
-            isCurrentlyPressed = InputUtil.isKeyPressed(client.getWindow().getHandle(), keyCode);
-        }
+    @Override
+    public ParentElement currentScreen() {
+        return client.currentScreen;
+    }
 
-        boolean wasInputPreviouslyPressed = keyStates.getOrDefault(keyCode, false);
+    @Override
+    public boolean isInWorld() {
+        return client.world != null;
+    }
 
-        if (isCurrentlyPressed && !wasInputPreviouslyPressed) {
-            keyStates.put(keyCode, true);
-            return true;
-        } else if (!isCurrentlyPressed) {
-            keyStates.put(keyCode, false);
-        }
-        return false;
+    @Override
+    public boolean isTyping() {
+        return FocusedTextInput.isTyping();
     }
 
-    // Check if the given code represents a mouse button. GLFW mouse button constants are typically 0-7
-    private boolean isMouseButton(int keyCode) {
-        return keyCode >= GLFW.GLFW_MOUSE_BUTTON_1 && keyCode <= GLFW.GLFW_MOUSE_BUTTON_LAST;
+    @Override
+    public ClosePlan buildPlan(ParentElement screen, CloseRules rules, ClientClosePolicy policy) {
+        return ClosePlan.build((Screen) screen, rules, policy);
     }
 
-    private boolean isTextFieldFocused(Screen screen) {
-        // Check for any focused text fields in the screen (including nested ones)
-        if (hasAnyFocusedTextField(screen)) {
-            return true;
+    @Override
+    public void close(ParentElement element, int triggerKey) {
+        Screen screen = (Screen) element;
+        if (config.isCloseToGame()) {
+            closeToGame(screen);
+        } else {
+            screen.close();
         }
-
-        // Special handling for screens that always have text input active
-        String screenClassName = screen.getClass().getSimpleName().toLowerCase();
-        if (screenClassName.contains("edit")) {
-            return true;
+        if (config.isForwardMovement() && client.currentScreen == null) {
+            movementKeyForwarder.forward(triggerKey, inputSource);
         }
-
-        return false;
     }
 
-    private boolean hasAnyFocusedTextField(Screen screen) {
-        return checkChildrenForFocusedTextField(screen.children());
-    }
-
-    private boolean checkChildrenForFocusedTextField(Iterable<?> children) {
-        for (var child : children) {
-            if (child instanceof TextFieldWidget textField && textField.isFocused()) {
-                return true;
-            }
-
-            // Recursively check if this child has its own children
-            try {
-                Field childrenField = child.getClass().getDeclaredField("children");
-                childrenField.setAccessible(true);
-                Object childrenObj = childrenField.get(child);
-                if (childrenObj instanceof Iterable<?> nestedChildren) {
-                    if (checkChildrenForFocusedTextField(nestedChildren)) {
-                        return true;
-                    }
-                }
-            } catch (Exception e) {
-                // Field doesn't exist or isn't accessible, continue
-            }
-
-            // Check for any field that might contain TextFieldWidget
-            if (hasTextFieldInFields(child)) {
-                return true;
-            }
+    // Leaves the screen and every parent it would return to in one step. setScreen(null) only calls removed() on
+    // the current screen, so no intermediate parent is initialized again on the way out.
+    private void closeToGame(Screen screen) {
+        ClientPlayerEntity player = client.player;
+        // A container may still be open below a sub-screen; closing it sends the close packet once and clears the screen
+        if (player != null && (screen instanceof HandledScreen<?> || player.currentScreenHandler != player.playerScreenHandler)) {
+            player.closeHandledScreen();
+        } else {
+            client.setScreen(null);
         }
-        return false;
     }
 
-    private boolean hasTextFieldInFields(Object obj) {
-        Class<?> clazz = obj.getClass();
-
-        // Check current class and all superclasses
-        while (clazz != null && clazz != Object.class) {
-            for (Field field : clazz.getDeclaredFields()) {
-                try {
-                    field.setAccessible(true);
-                    Object value = field.get(obj);
-
-                    if (value instanceof TextFieldWidget textField && textField.isFocused()) {
-                        return true;
-                    }
-
-                    // If it's a collection, check each element
-                    if (value instanceof Iterable<?> iterable) {
-                        for (Object item : iterable) {
-                            if (item instanceof TextFieldWidget textField && textField.isFocused()) {
-                                return true;
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    // Field not accessible or other error, continue
-                }
-            }
-            clazz = clazz.getSuperclass();
-        }
-        return false;
+    private void onClientTick(MinecraftClient client) {
+        awaitConfig();
+        closeDecision.tick(System.nanoTime());
     }
-}
\ No newline at end of file
+}
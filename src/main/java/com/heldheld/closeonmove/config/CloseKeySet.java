@@ -0,0 +1,153 @@
+package com.heldheld.closeonmove.config;
+
+import com.heldheld.closeonmove.input.GamepadInput;
+import com.heldheld.closeonmove.input.KeyStateTracker;
+import org.lwjgl.glfw.GLFW;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+// Immutable, precompiled set of close keys. Config publishes a new instance on every change,
+// so readers on any thread can use it without copying or locking.
+public final class CloseKeySet {
+    public static final CloseKeySet EMPTY = new CloseKeySet(new int[0]);
+
+    private final int[] codes;
+    private final int[] keyboardCodes;
+    private final int[] mouseButtons;
+    private final int[] gamepadInputs;
+    private final long[] mask = new long[(KeyStateTracker.SIZE + 63) >>> 6];
+    private final List<Integer> asList;
+
+    private CloseKeySet(int[] codes) {
+        this.codes = codes;
+
+        int mouseCount = 0;
+        int gamepadCount = 0;
+        for (int code : codes) {
+            if (isMouseButton(code)) {
+                mouseCount++;
+            } else if (GamepadInput.isGamepadInput(code)) {
+                gamepadCount++;
+            }
+        }
+        this.keyboardCodes = new int[codes.length - mouseCount - gamepadCount];
+        this.mouseButtons = new int[mouseCount];
+        this.gamepadInputs = new int[gamepadCount];
+
+        int k = 0;
+        int m = 0;
+        int g = 0;
+        List<Integer> list = new ArrayList<>(codes.length);
+        for (int code : codes) {
+            if (isMouseButton(code)) {
+                mouseButtons[m++] = code;
+            } else if (GamepadInput.isGamepadInput(code)) {
+                gamepadInputs[g++] = code;
+            } else {
+                keyboardCodes[k++] = code;
+            }
+            if (KeyStateTracker.isTrackable(code)) {
+                mask[code >>> 6] |= 1L << code;
+            }
+            list.add(code);
+        }
+        this.asList = Collections.unmodifiableList(list);
+    }
+
+    // Builds a snapshot keeping the first occurrence of each code, in order
+    public static CloseKeySet of(Collection<Integer> keys) {
+        int[] codes = new int[keys.size()];
+        int count = 0;
+        for (Integer key : keys) {
+            if (key == null || indexOf(codes, count, key) >= 0) {
+                continue;
+            }
+            codes[count++] = key;
+        }
+        if (count == 0) {
+            return EMPTY;
+        }
+        int[] trimmed = new int[count];
+        System.arraycopy(codes, 0, trimmed, 0, count);
+        return new CloseKeySet(trimmed);
+    }
+
+    // Check if the given code represents a mouse button. GLFW mouse button constants are 0-7
+    public static boolean isMouseButton(int keyCode) {
+        return keyCode >= GLFW.GLFW_MOUSE_BUTTON_1 && keyCode <= GLFW.GLFW_MOUSE_BUTTON_LAST;
+    }
+
+    public boolean contains(int keyCode) {
+        if (KeyStateTracker.isTrackable(keyCode)) {
+            return (mask[keyCode >>> 6] & (1L << keyCode)) != 0L;
+        }
+        return indexOf(codes, codes.length, keyCode) >= 0;
+    }
+
+    public CloseKeySet with(int keyCode) {
+        if (contains(keyCode)) {
+            return this;
+        }
+        List<Integer> keys = new ArrayList<>(asList);
+        keys.add(keyCode);
+        return of(keys);
+    }
+
+    public CloseKeySet without(int keyCode) {
+        if (!contains(keyCode)) {
+            return this;
+        }
+        List<Integer> keys = new ArrayList<>(asList);
+        keys.remove(Integer.valueOf(keyCode));
+        return of(keys);
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    public boolean isEmpty() {
+        return codes.length == 0;
+    }
+
+    public int keyboardCount() {
+        return keyboardCodes.length;
+    }
+
+    public int keyboardCode(int index) {
+        return keyboardCodes[index];
+    }
+
+    public int mouseCount() {
+        return mouseButtons.length;
+    }
+
+    public int mouseButton(int index) {
+        return mouseButtons[index];
+    }
+
+    public int gamepadCount() {
+        return gamepadInputs.length;
+    }
+
+    public int gamepadInput(int index) {
+        return gamepadInputs[index];
+    }
+
+    // Unmodifiable view in configuration order, built once with the snapshot
+    public List<Integer> asList() {
+        return asList;
+    }
+
+    private static int indexOf(int[] codes, int length, int keyCode) {
+        for (int i = 0; i < length; i++) {
+            if (codes[i] == keyCode) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,116 @@
+package com.heldheld.closeonmove.config;
+
+import com.heldheld.closeonmove.screen.ScreenRegistry;
+import net.minecraft.client.gui.screen.Screen;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// The default close keys and triggers plus the per-screen rules, compiled into lookup tables once per config change.
+// Rules for a screen type or class win over rules for its category; the closest class in the hierarchy wins.
+public final class CloseRules {
+    // Cached "no rule for this class" result, ClassValue can't hold null
+    private static final ScreenRule NO_RULE = new ScreenRule("", ScreenRule.Action.CLOSE, null);
+
+    private final CloseKeySet defaultKeys;
+    private final CloseTriggers triggers;
+    private final List<ScreenRule> rules;
+    private final ScreenRule[] byCategory = new ScreenRule[ScreenRegistry.Category.values().length];
+    private final Map<Class<?>, ScreenRule> byType = new IdentityHashMap<>();
+    // Mod screens keep their class names at runtime, so they can be matched by name
+    private final Map<String, ScreenRule> byClassName = new HashMap<>();
+    private final boolean hasTypeRules;
+
+    // Memoized type and class name match per screen class, valid for this instance only
+    private final ClassValue<ScreenRule> typeRules = new ClassValue<>() {
+        @Override
+        protected ScreenRule computeValue(Class<?> type) {
+            for (Class<?> c = type; c != null && c != Screen.class; c = c.getSuperclass()) {
+                ScreenRule rule = byType.get(c);
+                if (rule == null) {
+                    rule = byClassName.get(c.getName());
+                }
+                if (rule != null) {
+                    return rule;
+                }
+            }
+            return NO_RULE;
+        }
+    };
+
+    private CloseRules(CloseKeySet defaultKeys, CloseTriggers triggers, List<ScreenRule> rules) {
+        this.defaultKeys = defaultKeys;
+        this.triggers = triggers;
+        this.rules = rules;
+
+        for (ScreenRule rule : rules) {
+            String selector = rule.screen().trim();
+            ScreenRegistry.Category category = findCategory(selector);
+            Class<? extends Screen> type = ScreenRegistry.findType(selector);
+            // The first rule for a selector wins, like the first occurrence of a close key
+            if (category != null) {
+                if (byCategory[category.ordinal()] == null) {
+                    byCategory[category.ordinal()] = rule;
+                }
+            } else if (type != null) {
+                byType.putIfAbsent(type, rule);
+            } else if (selector.indexOf('.') > 0) {
+                byClassName.putIfAbsent(selector, rule);
+            } else {
+                System.err.println("Unknown screen in close rule: " + rule.screen());
+            }
+        }
+        this.hasTypeRules = !byType.isEmpty() || !byClassName.isEmpty();
+    }
+
+    public static CloseRules compile(CloseKeySet defaultKeys, CloseTriggers triggers, List<ScreenRule> rules) {
+        return new CloseRules(defaultKeys, triggers, List.copyOf(rules));
+    }
+
+    // Same rules with other default keys, used when only the global close keys change
+    public CloseRules withDefaultKeys(CloseKeySet keys) {
+        return keys == defaultKeys ? this : new CloseRules(keys, triggers, rules);
+    }
+
+    public CloseRules withTriggers(CloseTriggers triggers) {
+        return triggers == this.triggers ? this : new CloseRules(defaultKeys, triggers, rules);
+    }
+
+    // The rule for a screen class, or null when the screen follows the default behavior
+    @Nullable
+    public ScreenRule resolve(Class<?> type, ScreenRegistry.Category category) {
+        if (hasTypeRules) {
+            ScreenRule rule = typeRules.get(type);
+            if (rule != NO_RULE) {
+                return rule;
+            }
+        }
+        return byCategory[category.ordinal()];
+    }
+
+    public CloseKeySet getDefaultKeys() {
+        return defaultKeys;
+    }
+
+    // Triggers apply to a key wherever it is a close key, in the default keys and in rules alike
+    public CloseTriggers getTriggers() {
+        return triggers;
+    }
+
+    public List<ScreenRule> getRules() {
+        return rules;
+    }
+
+    @Nullable
+    private static ScreenRegistry.Category findCategory(String name) {
+        try {
+            return ScreenRegistry.Category.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.heldheld.closeonmove.config;
+
+import org.lwjgl.glfw.GLFW;
+
+// How a close key has to be pressed to close a screen. Keys without a trigger close on a single press.
+// The modifier is only used by chords, the duration only by hold and double-tap triggers.
+public record CloseTrigger(int key, Type type, int modifier, int millis) {
+    public static final int DEFAULT_HOLD_MILLIS = 150;
+    public static final int DEFAULT_DOUBLE_TAP_MILLIS = 250;
+    public static final int DEFAULT_MODIFIER = GLFW.GLFW_KEY_LEFT_SHIFT;
+
+    // Order matters: the trigger state machine indexes its transition table by ordinal
+    public enum Type {
+        // Close on the first press
+        TAP,
+        // Close on a press while the modifier is held, e.g. Shift+W
+        CHORD,
+        // Close once the key has been held for the duration
+        HOLD,
+        // Close on a second press within the duration of the first one
+        DOUBLE_TAP
+    }
+
+    // A trigger of the given type with the default modifier and duration
+    public static CloseTrigger withDefaults(int key, Type type) {
+        return switch (type) {
+            case CHORD -> new CloseTrigger(key, type, DEFAULT_MODIFIER, 0);
+            case HOLD -> new CloseTrigger(key, type, -1, DEFAULT_HOLD_MILLIS);
+            case DOUBLE_TAP -> new CloseTrigger(key, type, -1, DEFAULT_DOUBLE_TAP_MILLIS);
+            default -> new CloseTrigger(key, Type.TAP, -1, 0);
+        };
+    }
+}
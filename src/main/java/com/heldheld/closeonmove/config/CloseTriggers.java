@@ -0,0 +1,79 @@
+package com.heldheld.closeonmove.config;
+
+import com.heldheld.closeonmove.input.KeyStateTracker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Immutable trigger table indexed by key code, so the state machine looks up a key's trigger with array reads.
+// Keys without an entry, and codes outside the tracked range, are plain taps.
+public final class CloseTriggers {
+    public static final CloseTriggers NONE = new CloseTriggers(List.of());
+
+    private final byte[] types = new byte[KeyStateTracker.SIZE];
+    private final int[] modifiers = new int[KeyStateTracker.SIZE];
+    private final long[] durations = new long[KeyStateTracker.SIZE];
+    private final List<CloseTrigger> triggers;
+
+    private CloseTriggers(List<CloseTrigger> triggers) {
+        this.triggers = Collections.unmodifiableList(triggers);
+        for (CloseTrigger trigger : triggers) {
+            int key = trigger.key();
+            types[key] = (byte) trigger.type().ordinal();
+            modifiers[key] = trigger.modifier();
+            durations[key] = TimeUnit.MILLISECONDS.toNanos(trigger.millis());
+        }
+    }
+
+    // Keeps the first trigger per key; taps and untracked keys need no entry and are dropped
+    public static CloseTriggers of(Collection<CloseTrigger> triggers) {
+        List<CloseTrigger> kept = new ArrayList<>();
+        for (CloseTrigger trigger : triggers) {
+            if (trigger == null || trigger.type() == CloseTrigger.Type.TAP || !KeyStateTracker.isTrackable(trigger.key())
+                    || indexOf(kept, trigger.key()) >= 0) {
+                continue;
+            }
+            kept.add(trigger);
+        }
+        return kept.isEmpty() ? NONE : new CloseTriggers(kept);
+    }
+
+    // Ordinal of the key's CloseTrigger.Type
+    public int type(int key) {
+        return KeyStateTracker.isTrackable(key) ? types[key] : 0;
+    }
+
+    public int modifier(int key) {
+        return modifiers[key];
+    }
+
+    public long durationNanos(int key) {
+        return durations[key];
+    }
+
+    public boolean isEmpty() {
+        return triggers.isEmpty();
+    }
+
+    // The trigger of a key, a tap with defaults when it has none
+    public CloseTrigger get(int key) {
+        int index = indexOf(triggers, key);
+        return index >= 0 ? triggers.get(index) : CloseTrigger.withDefaults(key, CloseTrigger.Type.TAP);
+    }
+
+    public List<CloseTrigger> asList() {
+        return triggers;
+    }
+
+    private static int indexOf(List<CloseTrigger> triggers, int key) {
+        for (int i = 0; i < triggers.size(); i++) {
+            if (triggers.get(i).key() == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -2,25 +2,46 @@ package com.heldheld.closeonmove.config;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonParseException;
+import com.heldheld.closeonmove.debug.jfr.ConfigIoEvent;
 import net.fabricmc.loader.api.FabricLoader;
 import org.lwjgl.glfw.GLFW;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class Config {
     private static final String CONFIG_FILE_NAME = "closeonmove.json";
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
 
-    private static Config INSTANCE;
+    private static volatile Config INSTANCE;
+
+    // How close keys are detected: EVENT reacts to GLFW key/mouse callbacks, POLLING samples keys every tick
+    public enum InputMode {
+        EVENT,
+        POLLING
+    }
+
+    private volatile InputMode inputMode = InputMode.EVENT;
+
+    // How far a gamepad stick or analog trigger has to move (0-1) before it counts as pressed
+    private static final float DEFAULT_STICK_THRESHOLD = 0.5f;
+    private volatile float stickThreshold = DEFAULT_STICK_THRESHOLD;
+
+    // Whether closing goes straight back to the game, skipping the parent screens a screen would return to
+    private volatile boolean closeToGame = false;
+
+    // Whether a close key that is also a movement key starts moving the player in the same tick
+    private volatile boolean forwardMovement = true;
 
     // Default keys: W, A, S, D, SPACE
-    private List<Integer> CloseKeys = Arrays.asList(
+    private static final List<Integer> DEFAULT_CLOSE_KEYS = List.of(
             GLFW.GLFW_KEY_W,
             GLFW.GLFW_KEY_A,
             GLFW.GLFW_KEY_S,
@@ -28,214 +49,224 @@ public class Config {
             GLFW.GLFW_KEY_SPACE
     );
 
-    // Map for key code to name conversion
-    private static final Map<Integer, String> KEY_NAMES = new HashMap<>();
-    private static final Map<String, Integer> NAME_TO_KEY = new HashMap<>();
-
-    static {
-        // Initialize key mappings - Letters
-        addKeyMapping(GLFW.GLFW_KEY_A, "A");
-        addKeyMapping(GLFW.GLFW_KEY_B, "B");
-        addKeyMapping(GLFW.GLFW_KEY_C, "C");
-        addKeyMapping(GLFW.GLFW_KEY_D, "D");
-        addKeyMapping(GLFW.GLFW_KEY_E, "E");
-        addKeyMapping(GLFW.GLFW_KEY_F, "F");
-        addKeyMapping(GLFW.GLFW_KEY_G, "G");
-        addKeyMapping(GLFW.GLFW_KEY_H, "H");
-        addKeyMapping(GLFW.GLFW_KEY_I, "I");
-        addKeyMapping(GLFW.GLFW_KEY_J, "J");
-        addKeyMapping(GLFW.GLFW_KEY_K, "K");
-        addKeyMapping(GLFW.GLFW_KEY_L, "L");
-        addKeyMapping(GLFW.GLFW_KEY_M, "M");
-        addKeyMapping(GLFW.GLFW_KEY_N, "N");
-        addKeyMapping(GLFW.GLFW_KEY_O, "O");
-        addKeyMapping(GLFW.GLFW_KEY_P, "P");
-        addKeyMapping(GLFW.GLFW_KEY_Q, "Q");
-        addKeyMapping(GLFW.GLFW_KEY_R, "R");
-        addKeyMapping(GLFW.GLFW_KEY_S, "S");
-        addKeyMapping(GLFW.GLFW_KEY_T, "T");
-        addKeyMapping(GLFW.GLFW_KEY_U, "U");
-        addKeyMapping(GLFW.GLFW_KEY_V, "V");
-        addKeyMapping(GLFW.GLFW_KEY_W, "W");
-        addKeyMapping(GLFW.GLFW_KEY_X, "X");
-        addKeyMapping(GLFW.GLFW_KEY_Y, "Y");
-        addKeyMapping(GLFW.GLFW_KEY_Z, "Z");
-
-        // Numbers
-        addKeyMapping(GLFW.GLFW_KEY_0, "0");
-        addKeyMapping(GLFW.GLFW_KEY_1, "1");
-        addKeyMapping(GLFW.GLFW_KEY_2, "2");
-        addKeyMapping(GLFW.GLFW_KEY_3, "3");
-        addKeyMapping(GLFW.GLFW_KEY_4, "4");
-        addKeyMapping(GLFW.GLFW_KEY_5, "5");
-        addKeyMapping(GLFW.GLFW_KEY_6, "6");
-        addKeyMapping(GLFW.GLFW_KEY_7, "7");
-        addKeyMapping(GLFW.GLFW_KEY_8, "8");
-        addKeyMapping(GLFW.GLFW_KEY_9, "9");
-
-        // Function Keys
-        addKeyMapping(GLFW.GLFW_KEY_F1, "F1");
-        addKeyMapping(GLFW.GLFW_KEY_F2, "F2");
-        addKeyMapping(GLFW.GLFW_KEY_F3, "F3");
-        addKeyMapping(GLFW.GLFW_KEY_F4, "F4");
-        addKeyMapping(GLFW.GLFW_KEY_F5, "F5");
-        addKeyMapping(GLFW.GLFW_KEY_F6, "F6");
-        addKeyMapping(GLFW.GLFW_KEY_F7, "F7");
-        addKeyMapping(GLFW.GLFW_KEY_F8, "F8");
-        addKeyMapping(GLFW.GLFW_KEY_F9, "F9");
-        addKeyMapping(GLFW.GLFW_KEY_F10, "F10");
-        addKeyMapping(GLFW.GLFW_KEY_F11, "F11");
-        addKeyMapping(GLFW.GLFW_KEY_F12, "F12");
-        addKeyMapping(GLFW.GLFW_KEY_F13, "F13");
-        addKeyMapping(GLFW.GLFW_KEY_F14, "F14");
-        addKeyMapping(GLFW.GLFW_KEY_F15, "F15");
-        addKeyMapping(GLFW.GLFW_KEY_F16, "F16");
-        addKeyMapping(GLFW.GLFW_KEY_F17, "F17");
-        addKeyMapping(GLFW.GLFW_KEY_F18, "F18");
-        addKeyMapping(GLFW.GLFW_KEY_F19, "F19");
-        addKeyMapping(GLFW.GLFW_KEY_F20, "F20");
-        addKeyMapping(GLFW.GLFW_KEY_F21, "F21");
-        addKeyMapping(GLFW.GLFW_KEY_F22, "F22");
-        addKeyMapping(GLFW.GLFW_KEY_F23, "F23");
-        addKeyMapping(GLFW.GLFW_KEY_F24, "F24");
-        addKeyMapping(GLFW.GLFW_KEY_F25, "F25");
-
-        // Arrow Keys
-        addKeyMapping(GLFW.GLFW_KEY_UP, "Up");
-        addKeyMapping(GLFW.GLFW_KEY_DOWN, "Down");
-        addKeyMapping(GLFW.GLFW_KEY_LEFT, "Left");
-        addKeyMapping(GLFW.GLFW_KEY_RIGHT, "Right");
-
-        // Special Keys
-        addKeyMapping(GLFW.GLFW_KEY_SPACE, "Space");
-        addKeyMapping(GLFW.GLFW_KEY_ENTER, "Enter");
-        addKeyMapping(GLFW.GLFW_KEY_TAB, "Tab");
-        addKeyMapping(GLFW.GLFW_KEY_BACKSPACE, "Backspace");
-        addKeyMapping(GLFW.GLFW_KEY_DELETE, "Delete");
-        addKeyMapping(GLFW.GLFW_KEY_INSERT, "Insert");
-        addKeyMapping(GLFW.GLFW_KEY_HOME, "Home");
-        addKeyMapping(GLFW.GLFW_KEY_END, "End");
-        addKeyMapping(GLFW.GLFW_KEY_PAGE_UP, "Page Up");
-        addKeyMapping(GLFW.GLFW_KEY_PAGE_DOWN, "Page Down");
-
-        // Modifier Keys
-        addKeyMapping(GLFW.GLFW_KEY_LEFT_SHIFT, "Left Shift");
-        addKeyMapping(GLFW.GLFW_KEY_RIGHT_SHIFT, "Right Shift");
-        addKeyMapping(GLFW.GLFW_KEY_LEFT_CONTROL, "Left Control");
-        addKeyMapping(GLFW.GLFW_KEY_RIGHT_CONTROL, "Right Control");
-        addKeyMapping(GLFW.GLFW_KEY_LEFT_ALT, "Left Alt");
-        addKeyMapping(GLFW.GLFW_KEY_RIGHT_ALT, "Right Alt");
-        addKeyMapping(GLFW.GLFW_KEY_LEFT_SUPER, "Left Win");
-        addKeyMapping(GLFW.GLFW_KEY_RIGHT_SUPER, "Right Win");
-        addKeyMapping(GLFW.GLFW_KEY_MENU, "Menu");
-
-        // Lock Keys
-        addKeyMapping(GLFW.GLFW_KEY_CAPS_LOCK, "Caps Lock");
-        addKeyMapping(GLFW.GLFW_KEY_SCROLL_LOCK, "Scroll Lock");
-        addKeyMapping(GLFW.GLFW_KEY_NUM_LOCK, "Num Lock");
-
-        // Keypad Numbers
-        addKeyMapping(GLFW.GLFW_KEY_KP_0, "Keypad 0");
-        addKeyMapping(GLFW.GLFW_KEY_KP_1, "Keypad 1");
-        addKeyMapping(GLFW.GLFW_KEY_KP_2, "Keypad 2");
-        addKeyMapping(GLFW.GLFW_KEY_KP_3, "Keypad 3");
-        addKeyMapping(GLFW.GLFW_KEY_KP_4, "Keypad 4");
-        addKeyMapping(GLFW.GLFW_KEY_KP_5, "Keypad 5");
-        addKeyMapping(GLFW.GLFW_KEY_KP_6, "Keypad 6");
-        addKeyMapping(GLFW.GLFW_KEY_KP_7, "Keypad 7");
-        addKeyMapping(GLFW.GLFW_KEY_KP_8, "Keypad 8");
-        addKeyMapping(GLFW.GLFW_KEY_KP_9, "Keypad 9");
-
-        // Keypad Operations
-        addKeyMapping(GLFW.GLFW_KEY_KP_DECIMAL, "Keypad .");
-        addKeyMapping(GLFW.GLFW_KEY_KP_DIVIDE, "Keypad /");
-        addKeyMapping(GLFW.GLFW_KEY_KP_MULTIPLY, "Keypad *");
-        addKeyMapping(GLFW.GLFW_KEY_KP_SUBTRACT, "Keypad -");
-        addKeyMapping(GLFW.GLFW_KEY_KP_ADD, "Keypad +");
-        addKeyMapping(GLFW.GLFW_KEY_KP_ENTER, "Keypad Enter");
-        addKeyMapping(GLFW.GLFW_KEY_KP_EQUAL, "Keypad =");
-
-        // Punctuation and Symbols
-        addKeyMapping(GLFW.GLFW_KEY_SEMICOLON, ";");
-        addKeyMapping(GLFW.GLFW_KEY_EQUAL, "=");
-        addKeyMapping(GLFW.GLFW_KEY_COMMA, ",");
-        addKeyMapping(GLFW.GLFW_KEY_MINUS, "-");
-        addKeyMapping(GLFW.GLFW_KEY_PERIOD, ".");
-        addKeyMapping(GLFW.GLFW_KEY_SLASH, "/");
-        addKeyMapping(GLFW.GLFW_KEY_GRAVE_ACCENT, "`");
-        addKeyMapping(GLFW.GLFW_KEY_LEFT_BRACKET, "[");
-        addKeyMapping(GLFW.GLFW_KEY_BACKSLASH, "\\");
-        addKeyMapping(GLFW.GLFW_KEY_RIGHT_BRACKET, "]");
-        addKeyMapping(GLFW.GLFW_KEY_APOSTROPHE, "'");
-
-        // Print Screen and Pause
-        addKeyMapping(GLFW.GLFW_KEY_PRINT_SCREEN, "Print Screen");
-        addKeyMapping(GLFW.GLFW_KEY_PAUSE, "Pause");
-
-        // World Keys (for international keyboards)
-        addKeyMapping(GLFW.GLFW_KEY_WORLD_1, "World 1");
-        addKeyMapping(GLFW.GLFW_KEY_WORLD_2, "World 2");
-
-        // Mouse Buttons
-        addKeyMapping(GLFW.GLFW_MOUSE_BUTTON_LEFT, "Left Button");
-        addKeyMapping(GLFW.GLFW_MOUSE_BUTTON_RIGHT, "Right Button");
-        addKeyMapping(GLFW.GLFW_MOUSE_BUTTON_MIDDLE, "Middle Button");
-        addKeyMapping(GLFW.GLFW_MOUSE_BUTTON_4, "Back Button");
-        addKeyMapping(GLFW.GLFW_MOUSE_BUTTON_5, "Forward Button");
-        addKeyMapping(GLFW.GLFW_MOUSE_BUTTON_6, "Button 6");
-        addKeyMapping(GLFW.GLFW_MOUSE_BUTTON_7, "Button 7");
-        addKeyMapping(GLFW.GLFW_MOUSE_BUTTON_8, "Button 8");
-    }
-
-    private static void addKeyMapping(int keyCode, String name) {
-        KEY_NAMES.put(keyCode, name);
-        NAME_TO_KEY.put(name, keyCode);
-        // Also add uppercase version for case-insensitive lookup
-        NAME_TO_KEY.put(name.toUpperCase(), keyCode);
-    }
+    // Current close keys, replaced as a whole on every change so readers never see a partial update
+    private volatile CloseKeySet closeKeys = CloseKeySet.of(DEFAULT_CLOSE_KEYS);
+
+    // Close keys, triggers and per-screen rules compiled together, republished whenever any of them changes
+    private volatile CloseRules closeRules = CloseRules.compile(closeKeys, CloseTriggers.NONE, List.of());
+
+    // Profiles for specific servers and worlds, compiled on top of closeRules whenever it changes
+    private volatile List<ConfigProfile> profiles = List.of();
+    // Profile in use for the current server or world, null for the top-level settings
+    private volatile ConfigProfile activeProfile;
 
+    // Last content saved or loaded, used to skip reloads caused by our own writes
+    private volatile String lastWrittenJson;
+    // Counts saves, so a reload can tell that the file it read was overtaken by a save. Guarded by this.
+    private long saveCount;
+
+    // Returns the config, waiting for the background load if ConfigLoader started one
     public static Config getInstance() {
-        if (INSTANCE == null) {
-            INSTANCE = load();
+        Config config = INSTANCE;
+        if (config != null) {
+            return config;
+        }
+        synchronized (Config.class) {
+            if (INSTANCE == null) {
+                CompletableFuture<Config> pending = ConfigLoader.take();
+                INSTANCE = pending != null ? await(pending) : load();
+            }
+            return INSTANCE;
+        }
+    }
+
+    private static Config await(CompletableFuture<Config> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            System.err.println("Failed to load config: " + e.getCause());
+            return new Config();
         }
-        return INSTANCE;
     }
 
+    // The top-level keys, the ones the settings menu edits; profiles may replace them
     public List<Integer> getCloseKeys() {
-        return new ArrayList<>(CloseKeys);
+        return closeKeys.asList();
     }
 
-    public void setCloseKeys(List<Integer> keys) {
-        this.CloseKeys = new ArrayList<>(keys);
+    // Hot path accessor: the keys in effect, the active profile's if there is one; no copying
+    public CloseKeySet getCloseKeySet() {
+        return getCloseRules().getDefaultKeys();
+    }
+
+    // Hot path accessor for the close decision, compiled once per change; the active profile's rules if there is one
+    public CloseRules getCloseRules() {
+        ConfigProfile profile = activeProfile;
+        return profile != null ? profile.getRules() : closeRules;
+    }
+
+    public synchronized void setCloseKeys(List<Integer> keys) {
+        applyCloseKeys(CloseKeySet.of(keys));
         save();
     }
 
-    public void addCloseKey(int keyCode) {
-        if (!CloseKeys.contains(keyCode)) {
-            CloseKeys.add(keyCode);
+    public synchronized void addCloseKey(int keyCode) {
+        CloseKeySet updated = closeKeys.with(keyCode);
+        if (updated != closeKeys) {
+            applyCloseKeys(updated);
             save();
         }
     }
 
-    public void removeCloseKey(int keyCode) {
-        CloseKeys.remove(Integer.valueOf(keyCode));
+    public synchronized void removeCloseKey(int keyCode) {
+        applyCloseKeys(closeKeys.without(keyCode));
+        save();
+    }
+
+    public List<ScreenRule> getScreenRules() {
+        return closeRules.getRules();
+    }
+
+    public synchronized void setScreenRules(List<ScreenRule> rules) {
+        publishRules(CloseRules.compile(closeKeys, closeRules.getTriggers(), rules));
+        save();
+    }
+
+    public CloseTriggers getCloseTriggers() {
+        return closeRules.getTriggers();
+    }
+
+    public synchronized void setCloseTriggers(List<CloseTrigger> triggers) {
+        publishRules(closeRules.withTriggers(CloseTriggers.of(triggers)));
+        save();
+    }
+
+    // Everything the settings menu edits in one change: the rules are compiled and published once and saved once
+    public synchronized void update(InputMode mode, List<CloseTrigger> triggers, List<Integer> keys) {
+        inputMode = mode;
+        closeKeys = CloseKeySet.of(keys);
+        publishRules(CloseRules.compile(closeKeys, CloseTriggers.of(triggers), closeRules.getRules()));
+        save();
+    }
+
+    private void applyCloseKeys(CloseKeySet keys) {
+        closeKeys = keys;
+        publishRules(closeRules.withDefaultKeys(keys));
+    }
+
+    // Publishes new top-level rules and recompiles the profiles on top of them
+    private void publishRules(CloseRules rules) {
+        if (rules == closeRules) {
+            return;
+        }
+        closeRules = rules;
+        if (profiles.isEmpty()) {
+            return;
+        }
+        List<ConfigProfile> rebased = new ArrayList<>(profiles.size());
+        for (ConfigProfile profile : profiles) {
+            rebased.add(profile.withDefaults(rules));
+        }
+        publishProfiles(List.copyOf(rebased));
+    }
+
+    // Swaps in new profiles, keeping the active one by name
+    private void publishProfiles(List<ConfigProfile> updated) {
+        ConfigProfile active = activeProfile;
+        profiles = updated;
+        activeProfile = active == null ? null : findProfile(updated, active.getName());
+    }
+
+    public List<ConfigProfile> getProfiles() {
+        return profiles;
+    }
+
+    // Null while the top-level settings are in use
+    public ConfigProfile getActiveProfile() {
+        return activeProfile;
+    }
+
+    // Picks the first profile matching the server address or singleplayer world name (either may be null).
+    // Only compares strings against precompiled profiles, so it is cheap enough for the join path.
+    public synchronized ConfigProfile selectProfile(String serverAddress, String worldName) {
+        ConfigProfile selected = null;
+        for (ConfigProfile profile : profiles) {
+            if ((serverAddress != null && profile.matchesServer(serverAddress))
+                    || (worldName != null && profile.matchesWorld(worldName))) {
+                selected = profile;
+                break;
+            }
+        }
+        activeProfile = selected;
+        return selected;
+    }
+
+    // Goes back to the top-level settings, e.g. when leaving a server
+    public synchronized void clearActiveProfile() {
+        activeProfile = null;
+    }
+
+    // Switches to the next profile in file order, then back to the top-level settings; returns the new profile
+    public synchronized ConfigProfile cycleProfile() {
+        List<ConfigProfile> list = profiles;
+        int next = activeProfile == null ? 0 : list.indexOf(activeProfile) + 1;
+        activeProfile = next < list.size() ? list.get(next) : null;
+        return activeProfile;
+    }
+
+    public InputMode getInputMode() {
+        return inputMode;
+    }
+
+    public synchronized void setInputMode(InputMode mode) {
+        this.inputMode = mode;
+        save();
+    }
+
+    public boolean isCloseToGame() {
+        return closeToGame;
+    }
+
+    public synchronized void setCloseToGame(boolean closeToGame) {
+        this.closeToGame = closeToGame;
+        save();
+    }
+
+    public boolean isForwardMovement() {
+        return forwardMovement;
+    }
+
+    public synchronized void setForwardMovement(boolean forwardMovement) {
+        this.forwardMovement = forwardMovement;
+        save();
+    }
+
+    public float getStickThreshold() {
+        return stickThreshold;
+    }
+
+    public synchronized void setStickThreshold(float threshold) {
+        this.stickThreshold = clampStickThreshold(threshold);
         save();
     }
 
     public boolean isCloseKey(int keyCode) {
-        return CloseKeys.contains(keyCode);
+        return getCloseKeySet().contains(keyCode);
     }
 
     public String getKeyName(int keyCode) {
-        return KEY_NAMES.getOrDefault(keyCode, "KEY_" + keyCode);
+        return KeyNames.name(keyCode);
     }
 
+    // Case-insensitive; null for unknown names
     public Integer getKeyCode(String name) {
-        return NAME_TO_KEY.get(name);
+        int keyCode = KeyNames.code(name);
+        return keyCode >= 0 ? keyCode : null;
     }
 
+    // Unmodifiable, built once
     public Set<String> getAllKeyNames() {
-        return new HashSet<>(KEY_NAMES.values());
+        return KeyNames.all();
     }
 
     public static Config load() {
@@ -247,55 +278,401 @@ public class Config {
             return config;
         }
 
-        try (FileReader reader = new FileReader(configFile)) {
-            Type listType = new TypeToken<List<String>>(){}.getType();
-            ConfigData data = GSON.fromJson(reader, ConfigData.class);
+        try {
+            return fromJson(readConfigFile("load"));
+        } catch (IOException | JsonParseException e) {
+            System.err.println("Failed to load config: " + e.getMessage());
+            return new Config();
+        }
+    }
+
+    // Builds a config from file content; missing or unknown values fall back to the defaults.
+    // Headless tools use it too, since it never touches the config file.
+    public static Config fromJson(String json) {
+        ConfigData data = GSON.fromJson(json, ConfigData.class);
 
-            Config config = new Config();
-            if (data != null && data.CloseKeys != null) {
-                List<Integer> keys = new ArrayList<>();
-                for (String keyName : data.CloseKeys) {
-                    Integer keyCode = config.getKeyCode(keyName);
-                    if (keyCode != null) {
-                        keys.add(keyCode);
-                    }
+        Config config = new Config();
+        if (data != null && data.CloseKeys != null) {
+            List<Integer> keys = resolveKeyNames(data.CloseKeys);
+            if (!keys.isEmpty()) {
+                config.closeKeys = CloseKeySet.of(keys);
+            }
+        }
+        if (data != null && data.InputMode != null) {
+            config.inputMode = parseInputMode(data.InputMode);
+        }
+        if (data != null && data.StickThreshold != null) {
+            config.stickThreshold = clampStickThreshold(data.StickThreshold);
+        }
+        if (data != null && data.ForwardMovement != null) {
+            config.forwardMovement = data.ForwardMovement;
+        }
+        if (data != null && data.CloseToGame != null) {
+            config.closeToGame = data.CloseToGame;
+        }
+        CloseTriggers triggers = data != null ? parseTriggers(data.Triggers) : CloseTriggers.NONE;
+        List<ScreenRule> rules = data != null ? parseScreenRules(data.ScreenRules) : List.of();
+        config.closeRules = CloseRules.compile(config.closeKeys, triggers, rules);
+        if (data != null) {
+            config.profiles = parseProfiles(data.Profiles, config.closeRules);
+        }
+        config.lastWrittenJson = json;
+        return config;
+    }
+
+    // Re-reads the config file after it was changed outside the game.
+    // Unreadable, partially written or invalid content is ignored and the current settings stay active.
+    public void reloadFromDisk() {
+        long savesBeforeRead;
+        synchronized (this) {
+            savesBeforeRead = saveCount;
+        }
+        String json;
+        try {
+            json = readConfigFile("reload");
+        } catch (IOException e) {
+            System.err.println("Failed to reload config: " + e.getMessage());
+            return;
+        }
+
+        ConfigData data;
+        try {
+            data = GSON.fromJson(json, ConfigData.class);
+        } catch (JsonParseException e) {
+            System.err.println("Ignoring invalid config change: " + e.getMessage());
+            return;
+        }
+        if (data == null || data.CloseKeys == null) {
+            System.err.println("Ignoring incomplete config change");
+            return;
+        }
+
+        List<Integer> keys = resolveKeyNames(data.CloseKeys);
+        if (keys.isEmpty()) {
+            System.err.println("Ignoring config change without any known close keys");
+            return;
+        }
+
+        CloseKeySet closeKeySet = CloseKeySet.of(keys);
+        CloseRules rules = CloseRules.compile(closeKeySet, parseTriggers(data.Triggers), parseScreenRules(data.ScreenRules));
+        List<ConfigProfile> parsedProfiles = parseProfiles(data.Profiles, rules);
+
+        synchronized (this) {
+            // Our own save coming back through the file watcher, or a file that a save is about to overwrite or
+            // already did while it was being read; the write itself triggers the next reload
+            if (json.equals(lastWrittenJson) || saveCount != savesBeforeRead || WriterHolder.WRITER.hasPending()) {
+                return;
+            }
+            // Single reference swaps, readers see either the old or the new keys and rules
+            closeKeys = closeKeySet;
+            closeRules = rules;
+            publishProfiles(parsedProfiles);
+            if (data.InputMode != null) {
+                inputMode = parseInputMode(data.InputMode);
+            }
+            if (data.StickThreshold != null) {
+                stickThreshold = clampStickThreshold(data.StickThreshold);
+            }
+            if (data.ForwardMovement != null) {
+                forwardMovement = data.ForwardMovement;
+            }
+            if (data.CloseToGame != null) {
+                closeToGame = data.CloseToGame;
+            }
+            lastWrittenJson = json;
+        }
+    }
+
+    // Serializes the current state and hands it to the background writer; never blocks on disk I/O.
+    // Synchronized with reloadFromDisk, which checks and swaps between two saves.
+    public synchronized void save() {
+        String json = toJson();
+        saveCount++;
+        lastWrittenJson = json;
+        WriterHolder.WRITER.submit(json);
+    }
+
+    String toJson() {
+        ConfigData data = new ConfigData();
+        data.CloseKeys = toKeyNames(closeKeys);
+        data.InputMode = inputMode.name();
+        data.StickThreshold = stickThreshold;
+        data.ForwardMovement = forwardMovement;
+        data.CloseToGame = closeToGame;
+
+        if (!closeRules.getTriggers().isEmpty()) {
+            data.Triggers = toTriggerData(closeRules.getTriggers());
+        }
+        if (!closeRules.getRules().isEmpty()) {
+            data.ScreenRules = toScreenRuleData(closeRules.getRules());
+        }
+
+        if (!profiles.isEmpty()) {
+            data.Profiles = new ArrayList<>();
+            for (ConfigProfile profile : profiles) {
+                ProfileData profileData = new ProfileData();
+                profileData.Name = profile.getName();
+                profileData.Servers = profile.getServers().isEmpty() ? null : profile.getServers();
+                profileData.Worlds = profile.getWorlds().isEmpty() ? null : profile.getWorlds();
+                // Only what the profile sets itself, so it keeps following the top-level settings for the rest
+                if (profile.getKeys() != null) {
+                    profileData.CloseKeys = toKeyNames(profile.getKeys());
+                }
+                if (profile.getTriggers() != null) {
+                    profileData.Triggers = toTriggerData(profile.getTriggers());
                 }
-                if (!keys.isEmpty()) {
-                    config.CloseKeys = keys;
+                if (profile.getScreenRules() != null) {
+                    profileData.ScreenRules = toScreenRuleData(profile.getScreenRules());
                 }
+                data.Profiles.add(profileData);
             }
-            return config;
-        } catch (IOException e) {
-            System.err.println("Failed to load config: " + e.getMessage());
-            return new Config();
         }
+        return GSON.toJson(data);
     }
 
-    public void save() {
-        File configFile = getConfigFile();
+    private static List<String> toKeyNames(CloseKeySet keys) {
+        List<String> names = new ArrayList<>();
+        for (int keyCode : keys.asList()) {
+            names.add(KeyNames.name(keyCode));
+        }
+        return names;
+    }
 
-        try {
-            configFile.getParentFile().mkdirs();
+    private static List<TriggerData> toTriggerData(CloseTriggers triggers) {
+        List<TriggerData> entries = new ArrayList<>();
+        for (CloseTrigger trigger : triggers.asList()) {
+            TriggerData triggerData = new TriggerData();
+            triggerData.Key = KeyNames.name(trigger.key());
+            triggerData.Type = trigger.type().name();
+            if (trigger.type() == CloseTrigger.Type.CHORD) {
+                triggerData.Modifier = KeyNames.name(trigger.modifier());
+            } else {
+                triggerData.Millis = trigger.millis();
+            }
+            entries.add(triggerData);
+        }
+        return entries;
+    }
 
-            ConfigData data = new ConfigData();
-            data.CloseKeys = new ArrayList<>();
-            for (int keyCode : CloseKeys) {
-                data.CloseKeys.add(getKeyName(keyCode));
+    private static List<ScreenRuleData> toScreenRuleData(List<ScreenRule> rules) {
+        List<ScreenRuleData> entries = new ArrayList<>();
+        for (ScreenRule rule : rules) {
+            ScreenRuleData ruleData = new ScreenRuleData();
+            ruleData.Screen = rule.screen();
+            ruleData.Action = rule.action().name();
+            if (rule.keys() != null) {
+                ruleData.Keys = toKeyNames(rule.keys());
             }
+            entries.add(ruleData);
+        }
+        return entries;
+    }
+
+    // Waits for pending saves to reach the disk, called when the client shuts down
+    public static void flush() {
+        WriterHolder.WRITER.flush();
+    }
 
-            try (FileWriter writer = new FileWriter(configFile)) {
-                GSON.toJson(data, writer);
+    private static List<Integer> resolveKeyNames(List<String> names) {
+        List<Integer> keys = new ArrayList<>();
+        for (String keyName : names) {
+            int keyCode = keyName == null ? -1 : KeyNames.code(keyName);
+            if (keyCode >= 0) {
+                keys.add(keyCode);
             }
-        } catch (IOException e) {
-            System.err.println("Failed to save config: " + e.getMessage());
         }
+        return keys;
+    }
+
+    // Triggers with unknown keys, types or modifiers are skipped; missing durations use the defaults
+    private static CloseTriggers parseTriggers(List<TriggerData> entries) {
+        if (entries == null) {
+            return CloseTriggers.NONE;
+        }
+        List<CloseTrigger> triggers = new ArrayList<>();
+        for (TriggerData entry : entries) {
+            int key = entry == null || entry.Key == null ? -1 : KeyNames.code(entry.Key);
+            if (key < 0) {
+                System.err.println("Ignoring trigger for unknown key: " + (entry == null ? null : entry.Key));
+                continue;
+            }
+            CloseTrigger.Type type;
+            try {
+                type = entry.Type == null ? CloseTrigger.Type.TAP : CloseTrigger.Type.valueOf(entry.Type.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.err.println("Ignoring trigger with unknown type: " + entry.Type);
+                continue;
+            }
+
+            CloseTrigger defaults = CloseTrigger.withDefaults(key, type);
+            int modifier = defaults.modifier();
+            if (type == CloseTrigger.Type.CHORD && entry.Modifier != null) {
+                int modifierKey = KeyNames.code(entry.Modifier);
+                if (modifierKey < 0) {
+                    System.err.println("Ignoring chord with unknown modifier: " + entry.Modifier);
+                    continue;
+                }
+                modifier = modifierKey;
+            }
+            int millis = entry.Millis != null && entry.Millis > 0 && type != CloseTrigger.Type.CHORD ? entry.Millis : defaults.millis();
+            triggers.add(new CloseTrigger(key, type, modifier, millis));
+        }
+        return CloseTriggers.of(triggers);
+    }
+
+    // Rules without a screen or with an unknown action are skipped; rules without keys use the close keys
+    private static List<ScreenRule> parseScreenRules(List<ScreenRuleData> entries) {
+        if (entries == null) {
+            return List.of();
+        }
+        List<ScreenRule> rules = new ArrayList<>();
+        for (ScreenRuleData entry : entries) {
+            if (entry == null || entry.Screen == null || entry.Screen.isBlank()) {
+                System.err.println("Ignoring close rule without a screen");
+                continue;
+            }
+            ScreenRule.Action action;
+            try {
+                action = entry.Action == null ? ScreenRule.Action.CLOSE : ScreenRule.Action.valueOf(entry.Action.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.err.println("Ignoring close rule with unknown action: " + entry.Action);
+                continue;
+            }
+            CloseKeySet keys = entry.Keys == null ? null : CloseKeySet.of(resolveKeyNames(entry.Keys));
+            rules.add(new ScreenRule(entry.Screen, action, keys));
+        }
+        return rules;
+    }
+
+    // Profiles without a name are skipped; whatever a profile leaves out comes from the top-level settings
+    private static List<ConfigProfile> parseProfiles(List<ProfileData> entries, CloseRules defaults) {
+        if (entries == null) {
+            return List.of();
+        }
+        List<ConfigProfile> parsed = new ArrayList<>();
+        for (ProfileData entry : entries) {
+            if (entry == null || entry.Name == null || entry.Name.isBlank()) {
+                System.err.println("Ignoring profile without a name");
+                continue;
+            }
+            CloseKeySet keys = null;
+            if (entry.CloseKeys != null) {
+                List<Integer> resolved = resolveKeyNames(entry.CloseKeys);
+                if (resolved.isEmpty()) {
+                    System.err.println("Profile " + entry.Name + " has no known close keys, using the top-level ones");
+                } else {
+                    keys = CloseKeySet.of(resolved);
+                }
+            }
+            CloseTriggers triggers = entry.Triggers == null ? null : parseTriggers(entry.Triggers);
+            List<ScreenRule> rules = entry.ScreenRules == null ? null : parseScreenRules(entry.ScreenRules);
+            parsed.add(new ConfigProfile(entry.Name.trim(), nonNullNames(entry.Servers), nonNullNames(entry.Worlds),
+                    keys, triggers, rules, defaults));
+        }
+        return List.copyOf(parsed);
+    }
+
+    private static List<String> nonNullNames(List<String> names) {
+        if (names == null) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>(names.size());
+        for (String name : names) {
+            if (name != null && !name.isBlank()) {
+                result.add(name.trim());
+            }
+        }
+        return result;
+    }
+
+    private static ConfigProfile findProfile(List<ConfigProfile> profiles, String name) {
+        for (ConfigProfile profile : profiles) {
+            if (profile.getName().equals(name)) {
+                return profile;
+            }
+        }
+        return null;
+    }
+
+    // Keeps a little dead zone so resting sticks never count as pressed
+    private static float clampStickThreshold(float threshold) {
+        return Math.max(0.1f, Math.min(1.0f, threshold));
+    }
+
+    private static InputMode parseInputMode(String name) {
+        try {
+            return InputMode.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown input mode in config: " + name);
+            return InputMode.EVENT;
+        }
+    }
+
+    // Reads closeonmove.json, reporting the read to JFR when a recording is running
+    private static String readConfigFile(String operation) throws IOException {
+        ConfigIoEvent event = new ConfigIoEvent();
+        event.begin();
+        String json = null;
+        try {
+            json = Files.readString(getConfigFile().toPath(), StandardCharsets.UTF_8);
+            return json;
+        } finally {
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.bytes = json != null ? json.getBytes(StandardCharsets.UTF_8).length : 0;
+                event.success = json != null;
+                event.commit();
+            }
+        }
+    }
+
+    static Path getConfigDir() {
+        return FabricLoader.getInstance().getConfigDir();
+    }
+
+    static String getConfigFileName() {
+        return CONFIG_FILE_NAME;
     }
 
     private static File getConfigFile() {
         return new File(FabricLoader.getInstance().getConfigDir().toFile(), CONFIG_FILE_NAME);
     }
 
+    // Created on first save, so the key tables can be used without a running Fabric loader
+    private static class WriterHolder {
+        private static final ConfigWriter WRITER = new ConfigWriter(getConfigFile().toPath());
+    }
+
     private static class ConfigData {
         public List<String> CloseKeys;
+        public String InputMode;
+        public Float StickThreshold;
+        public Boolean ForwardMovement;
+        public Boolean CloseToGame;
+        public List<TriggerData> Triggers;
+        public List<ScreenRuleData> ScreenRules;
+        public List<ProfileData> Profiles;
+    }
+
+    private static class ProfileData {
+        public String Name;
+        public List<String> Servers;
+        public List<String> Worlds;
+        public List<String> CloseKeys;
+        public List<TriggerData> Triggers;
+        public List<ScreenRuleData> ScreenRules;
+    }
+
+    private static class TriggerData {
+        public String Key;
+        public String Type;
+        public String Modifier;
+        public Integer Millis;
+    }
+
+    private static class ScreenRuleData {
+        public String Screen;
+        public List<String> Keys;
+        public String Action;
     }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.heldheld.closeonmove.config;
+
+import com.heldheld.closeonmove.debug.StartupTimes;
+
+import java.util.concurrent.CompletableFuture;
+
+// Reads the config on a virtual thread during startup. Kept apart from Config so that starting the load does not
+// initialize Config on the main thread: the Gson setup, the key tables and the file read all run in the background.
+public final class ConfigLoader {
+    private static CompletableFuture<Config> pending;
+
+    private ConfigLoader() {
+    }
+
+    public static synchronized void start() {
+        if (pending != null) {
+            return;
+        }
+        CompletableFuture<Config> load = new CompletableFuture<>();
+        pending = load;
+        Thread.ofVirtual().name("CloseOnMove config load").start(() -> {
+            long start = System.nanoTime();
+            try {
+                load.complete(Config.load());
+            } catch (Throwable t) {
+                load.completeExceptionally(t);
+            } finally {
+                StartupTimes.configLoadNanos = System.nanoTime() - start;
+            }
+        });
+    }
+
+    // Hands the running load to Config.getInstance() once; null if none was started
+    static synchronized CompletableFuture<Config> take() {
+        CompletableFuture<Config> load = pending;
+        pending = null;
+        return load;
+    }
+}
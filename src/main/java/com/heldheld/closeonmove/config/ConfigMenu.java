@@ -1,28 +1,50 @@
 package com.heldheld.closeonmove.config;
 
 import com.heldheld.closeonmove.CloseOnMove;
+import com.heldheld.closeonmove.input.GamepadInput;
+import com.heldheld.closeonmove.input.GlfwInputSource;
+import com.heldheld.closeonmove.input.KeyStateTracker;
 import com.terraformersmc.modmenu.api.ConfigScreenFactory;
 import com.terraformersmc.modmenu.api.ModMenuApi;
 import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.gui.Element;
 import net.minecraft.client.gui.Selectable;
 import net.minecraft.client.gui.screen.Screen;
+import net.minecraft.client.gui.tooltip.Tooltip;
 import net.minecraft.client.gui.widget.ButtonWidget;
 import net.minecraft.client.gui.widget.ElementListWidget;
+import net.minecraft.client.gui.widget.TextFieldWidget;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 import org.lwjgl.glfw.GLFW;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class ConfigMenu extends Screen {
+    private static final int[] DEFAULT_KEYS = {
+            GLFW.GLFW_KEY_W,
+            GLFW.GLFW_KEY_A,
+            GLFW.GLFW_KEY_S,
+            GLFW.GLFW_KEY_D,
+            GLFW.GLFW_KEY_SPACE
+    };
+
     private final Screen parent;
     private final Config config;
-    private final int[] tempKeys = new int[10]; // 10 slots for keys
-    private int waitingForKeySlot = -1; // -1 = not waiting, 0-9 = slot index
-
-    // Entry list widget for keybind buttons
+    private final List<Slot> slots = new ArrayList<>(); // one per bound key, any number of them
+    private final Slot addSlot = new Slot(-1, CloseTrigger.Type.TAP); // the "+ Add key" button after the last slot
+    private final CloseTriggers savedTriggers; // keeps custom durations and modifiers from the config file
+    private final KeySearch search = new KeySearch();
+    private Slot waitingSlot; // null = not waiting
+    private Config.InputMode tempInputMode;
+    private GlfwInputSource gamepadSource; // polled while waiting for a binding
+    // Gamepad inputs down at the last poll; only inputs pressed after waiting started are bound
+    private final KeyStateTracker gamepadStates = new KeyStateTracker();
+
+    // Entry list widget for keybind buttons, or search results while the search box has text
     private KeybindListWidget keybindList;
+    private TextFieldWidget searchField;
 
     // Bottom buttons
     private ButtonWidget cancelButton;
@@ -30,40 +52,56 @@ public class ConfigMenu extends Screen {
     private ButtonWidget resetButton;
 
     protected ConfigMenu(Screen parent) {
-        super(Text.literal("CloseOnMove Settings"));
+        super(buildTitle(Config.getInstance()));
         this.parent = parent;
         this.config = Config.getInstance();
+        this.savedTriggers = config.getCloseTriggers();
 
-        // Initialize temp keys from config
-        initializeTempKeys();
+        // Initialize slots from config
+        initializeSlots();
+        this.tempInputMode = config.getInputMode();
     }
 
-    private void initializeTempKeys() {
-        // Fill with -1 (unbound) first
-        for (int i = 0; i < 10; i++) {
-            tempKeys[i] = -1;
-        }
+    // The menu edits the top-level settings; an active profile builds on them, so its name is shown
+    private static Text buildTitle(Config config) {
+        ConfigProfile profile = config.getActiveProfile();
+        return profile == null
+                ? Text.literal("CloseOnMove Settings")
+                : Text.literal("CloseOnMove Settings (profile: " + profile.getName() + ")");
+    }
 
-        // Get current keys from config and assign to first available slots
-        var currentKeys = config.getCloseKeys();
-        for (int i = 0; i < Math.min(currentKeys.size(), 10); i++) {
-            tempKeys[i] = currentKeys.get(i);
+    private void initializeSlots() {
+        for (int key : config.getCloseKeys()) {
+            slots.add(new Slot(key, savedTriggers.get(key).type()));
         }
 
         // If no keys configured, set defaults
-        if (currentKeys.isEmpty()) {
-            tempKeys[0] = GLFW.GLFW_KEY_W;
-            tempKeys[1] = GLFW.GLFW_KEY_A;
-            tempKeys[2] = GLFW.GLFW_KEY_S;
-            tempKeys[3] = GLFW.GLFW_KEY_D;
-            tempKeys[4] = GLFW.GLFW_KEY_SPACE;
+        if (slots.isEmpty()) {
+            setDefaultSlots();
+        }
+    }
+
+    private void setDefaultSlots() {
+        slots.clear();
+        for (int key : DEFAULT_KEYS) {
+            slots.add(new Slot(key, CloseTrigger.Type.TAP));
         }
     }
 
     @Override
     protected void init() {
+        // Search box between the title and the list; init() runs again on resize, so keep what was typed
+        String searchText = searchField != null ? searchField.getText() : "";
+        searchField = new TextFieldWidget(this.textRenderer, (width - 200) / 2, 34, 200, 18, Text.literal("Search keys"));
+        searchField.setPlaceholder(Text.literal("Search keys...").styled(style -> style.withColor(Formatting.DARK_GRAY)));
+        searchField.setText(searchText);
+        searchField.setChangedListener(this::onSearchChanged);
+        addDrawableChild(searchField);
+
         // Create the keybind list widget
-        keybindList = new KeybindListWidget(this.client, this.width, this.height - 80, 40, 25);
+        keybindList = new KeybindListWidget(this.client, this.width, this.height - 98, 58, 25);
+        search.update(searchText);
+        keybindList.rebuild();
 
         addDrawableChild(keybindList);
 
@@ -99,56 +137,142 @@ public class ConfigMenu extends Screen {
         addDrawableChild(resetButton);
     }
 
-    private Text getKeyButtonText(int slot) {
-        String keyName;
-        if (tempKeys[slot] == -1) {
-            keyName = "Not Bound";
-        } else {
-            keyName = config.getKeyName(tempKeys[slot]);
-        }
+    private Text buildKeyButtonText(Slot slot) {
+        Text keyName = slot == addSlot ? Text.literal("+ Add key") : KeyLabels.get(slot.key);
 
-        if (waitingForKeySlot == slot) {
+        if (waitingSlot == slot) {
             // Create text with yellow brackets and underlined white key name
             return Text.literal("")
                     .append(Text.literal(">").styled(style -> style.withColor(Formatting.YELLOW)))
                     .append(Text.literal(" "))
-                    .append(Text.literal(keyName).styled(style -> style.withUnderline(true).withColor(Formatting.WHITE)))
+                    .append(keyName.copy().styled(style -> style.withUnderline(true).withColor(Formatting.WHITE)))
                     .append(Text.literal(" "))
                     .append(Text.literal("<").styled(style -> style.withColor(Formatting.YELLOW)));
         } else {
-            return Text.literal(keyName);
+            return keyName;
+        }
+    }
+
+    private Text buildTriggerButtonText(Slot slot) {
+        return switch (slot.type) {
+            case CHORD -> Text.literal("Chord");
+            case HOLD -> Text.literal("Hold");
+            case DOUBLE_TAP -> Text.literal("2x");
+            default -> Text.literal("Tap");
+        };
+    }
+
+    private Tooltip buildTriggerTooltip(Slot slot) {
+        CloseTrigger trigger = getSlotTrigger(slot);
+        Text description = switch (trigger.type()) {
+            case CHORD -> Text.literal("Closes when pressed while ").append(KeyLabels.get(trigger.modifier())).append(" is held");
+            case HOLD -> Text.literal("Closes after holding the key for " + trigger.millis() + " ms");
+            case DOUBLE_TAP -> Text.literal("Closes when pressed twice within " + trigger.millis() + " ms");
+            default -> Text.literal("Closes on the first press");
+        };
+        return Tooltip.of(description);
+    }
+
+    // The slot's trigger, keeping the duration or modifier from the config file if the type is unchanged
+    private CloseTrigger getSlotTrigger(Slot slot) {
+        CloseTrigger saved = savedTriggers.get(slot.key);
+        if (saved.type() == slot.type) {
+            return saved;
+        }
+        return CloseTrigger.withDefaults(slot.key, slot.type);
+    }
+
+    private void cycleTrigger(Slot slot) {
+        CloseTrigger.Type[] types = CloseTrigger.Type.values();
+        slot.type = types[(slot.type.ordinal() + 1) % types.length];
+        slot.changed();
+    }
+
+    private Text getInputModeButtonText() {
+        String modeName = tempInputMode == Config.InputMode.EVENT ? "Instant (events)" : "Per tick (polling)";
+        return Text.literal("Detection: " + modeName);
+    }
+
+    private void toggleInputMode() {
+        tempInputMode = tempInputMode == Config.InputMode.EVENT ? Config.InputMode.POLLING : Config.InputMode.EVENT;
+    }
+
+    private void startKeyBinding(Slot slot) {
+        setWaitingSlot(slot);
+    }
+
+    // Only the slots whose waiting state changes get new button texts
+    private void setWaitingSlot(Slot slot) {
+        if (waitingSlot != null) {
+            waitingSlot.changed();
+        }
+        waitingSlot = slot;
+        if (slot != null) {
+            slot.changed();
+            // A controller mod clicks the button with a gamepad button that is still held now, don't bind that one
+            sampleGamepad();
+        }
+    }
+
+    // Binds the key to the slot waiting for one; binding the add slot appends a new slot
+    private void assignKey(int keyCode) {
+        Slot slot = waitingSlot;
+        setWaitingSlot(null);
+        if (slot == addSlot) {
+            slots.add(new Slot(keyCode, CloseTrigger.Type.TAP));
+            keybindList.rebuild();
+        } else {
+            slot.key = keyCode;
+            slot.changed();
         }
     }
 
-    private void startKeyBinding(int slot) {
-        waitingForKeySlot = slot;
-        refreshKeybindList();
+    // A search result was clicked: bind it to the waiting slot, or add it if it isn't bound yet
+    private void pickKey(int keyCode) {
+        if (waitingSlot != null) {
+            assignKey(keyCode);
+        } else if (!isBound(keyCode)) {
+            slots.add(new Slot(keyCode, CloseTrigger.Type.TAP));
+        }
+        searchField.setText("");
     }
 
-    private void refreshKeybindList() {
-        // Refresh all entries in the list
-        for (KeybindListWidget.ListEntry entry : keybindList.children()) {
-            if (entry instanceof KeybindListWidget.KeybindEntry) {
-                ((KeybindListWidget.KeybindEntry) entry).refreshButton();
+    private boolean isBound(int keyCode) {
+        for (Slot slot : slots) {
+            if (slot.key == keyCode) {
+                return true;
             }
         }
+        return false;
+    }
+
+    private void onSearchChanged(String text) {
+        if (search.update(text)) {
+            keybindList.rebuild();
+            keybindList.setScrollY(0);
+        }
+    }
+
+    private boolean isSearching() {
+        return !search.prefix().isEmpty();
     }
 
     @Override
     public boolean keyPressed(int keyCode, int scanCode, int modifiers) {
-        if (waitingForKeySlot != -1) {
-            // Escape cancels key binding and sets to "Not Bound"
+        if (waitingSlot != null) {
+            // Escape cancels key binding and removes the slot
             if (keyCode == GLFW.GLFW_KEY_ESCAPE) {
-                tempKeys[waitingForKeySlot] = -1; // Set to "Not Bound"
-                waitingForKeySlot = -1;
-                refreshKeybindList();
+                Slot slot = waitingSlot;
+                setWaitingSlot(null);
+                if (slot != addSlot) {
+                    slots.remove(slot);
+                    keybindList.rebuild();
+                }
                 return true;
             }
 
             // Assign the key
-            tempKeys[waitingForKeySlot] = keyCode;
-            waitingForKeySlot = -1;
-            refreshKeybindList();
+            assignKey(keyCode);
             return true;
         }
 
@@ -156,34 +280,57 @@ public class ConfigMenu extends Screen {
     }
 
     @Override
-    public boolean mouseClicked(double mouseX, double mouseY, int button) {
-        // If we're waiting for a key binding and the click is on the keybind list area
-        if (waitingForKeySlot != -1 && keybindList.isMouseOver(mouseX, mouseY)) {
-            // Check if the click is on one of the keybind buttons
-            boolean clickedOnKeybindButton = false;
-            for (KeybindListWidget.ListEntry entry : keybindList.children()) {
-                if (entry instanceof KeybindListWidget.KeybindEntry) {
-                    KeybindListWidget.KeybindEntry keybindEntry = (KeybindListWidget.KeybindEntry) entry;
-                    if (keybindEntry.isMouseOverButton(mouseX, mouseY)) {
-                        clickedOnKeybindButton = true;
-                        break;
-                    }
-                }
+    public boolean charTyped(char chr, int modifiers) {
+        // The key being bound shouldn't also end up in the search box
+        if (waitingSlot != null) {
+            return true;
+        }
+        return super.charTyped(chr, modifiers);
+    }
+
+    @Override
+    public void tick() {
+        super.tick();
+        if (waitingSlot == null) {
+            return;
+        }
+
+        // Gamepads don't send input events to screens, so poll for a newly pressed button or stick while waiting
+        sampleGamepad();
+        int pressed = gamepadStates.firstRisingEdge();
+        if (pressed != -1) {
+            assignKey(pressed);
+        }
+    }
+
+    private void sampleGamepad() {
+        if (gamepadSource == null) {
+            gamepadSource = new GlfwInputSource(this.client, config);
+        }
+        gamepadSource.pollGamepad();
+        gamepadStates.beginSample();
+        for (int code = GamepadInput.FIRST; code <= GamepadInput.LAST; code++) {
+            if (gamepadSource.isGamepadInputDown(code)) {
+                gamepadStates.markDown(code);
             }
+        }
+        gamepadStates.commit();
+    }
 
+    @Override
+    public boolean mouseClicked(double mouseX, double mouseY, int button) {
+        // If we're waiting for a key binding and the click is on the keybind list area
+        if (waitingSlot != null && keybindList.isMouseOver(mouseX, mouseY)) {
             // If clicked on a keybind button while waiting, assign the mouse button
-            if (clickedOnKeybindButton) {
-                tempKeys[waitingForKeySlot] = button;
-                waitingForKeySlot = -1;
-                refreshKeybindList();
+            if (keybindList.isMouseOverKeybindButton(mouseX, mouseY)) {
+                assignKey(button);
                 return true;
             }
         }
 
         // Cancel key binding if clicking elsewhere
-        if (waitingForKeySlot != -1 && !keybindList.isMouseOver(mouseX, mouseY)) {
-            waitingForKeySlot = -1;
-            refreshKeybindList();
+        if (waitingSlot != null && !keybindList.isMouseOver(mouseX, mouseY)) {
+            setWaitingSlot(null);
         }
 
         return super.mouseClicked(mouseX, mouseY, button);
@@ -197,69 +344,129 @@ public class ConfigMenu extends Screen {
         // Draw title on top (after super.render to ensure it's drawn above everything)
         // Fixed: Added alpha channel (0xFF) to make text visible in 1.21.6
         context.drawCenteredTextWithShadow(this.textRenderer,
-                Text.literal("CloseOnMove Settings").styled(style -> style.withColor(Formatting.WHITE)),
+                this.title.copy().styled(style -> style.withColor(Formatting.WHITE)),
                 width / 2, 20, 0xFFFFFFFF); // Changed from Formatting.WHITE.getColorValue() to 0xFFFFFFFF
     }
 
     private void onCancelClick() {
-        waitingForKeySlot = -1; // Cancel any pending key binding
+        waitingSlot = null; // Cancel any pending key binding
         close();
     }
 
     private void onSaveQuitClick() {
-        // Convert temp keys to list, excluding unbound (-1) keys
-        java.util.List<Integer> keysToSave = new java.util.ArrayList<>();
-        for (int key : tempKeys) {
-            if (key != -1) {
-                keysToSave.add(key);
-            }
+        List<Integer> keysToSave = new ArrayList<>(slots.size());
+        List<CloseTrigger> triggersToSave = new ArrayList<>(slots.size());
+        for (Slot slot : slots) {
+            keysToSave.add(slot.key);
+            triggersToSave.add(getSlotTrigger(slot));
         }
 
-        config.setCloseKeys(keysToSave);
+        config.update(tempInputMode, triggersToSave, keysToSave);
         close();
     }
 
     private void onResetClick() {
-        // Clear all slots
-        for (int i = 0; i < 10; i++) {
-            tempKeys[i] = -1;
-        }
+        setDefaultSlots();
+        tempInputMode = Config.InputMode.EVENT;
 
-        // Set defaults
-        tempKeys[0] = GLFW.GLFW_KEY_W;
-        tempKeys[1] = GLFW.GLFW_KEY_A;
-        tempKeys[2] = GLFW.GLFW_KEY_S;
-        tempKeys[3] = GLFW.GLFW_KEY_D;
-        tempKeys[4] = GLFW.GLFW_KEY_SPACE;
-
-        waitingForKeySlot = -1;
-        refreshKeybindList();
+        setWaitingSlot(null);
+        keybindList.rebuild();
     }
 
     @Override
     public void close() {
-        waitingForKeySlot = -1; // Cancel any pending key binding
+        waitingSlot = null; // Cancel any pending key binding
         this.client.setScreen(this.parent);
     }
 
-    // Custom ElementListWidget for keybind entries
+    // A bound key and its trigger type. Button texts are built on first use and kept until the slot changes
+    private final class Slot {
+        private int key;
+        private CloseTrigger.Type type;
+        private int version;
+        private Text keyText;
+        private Text triggerText;
+        private Tooltip triggerTooltip;
+
+        private Slot(int key, CloseTrigger.Type type) {
+            this.key = key;
+            this.type = type;
+        }
+
+        private void changed() {
+            version++;
+            keyText = null;
+            triggerText = null;
+            triggerTooltip = null;
+        }
+
+        private Text keyText() {
+            if (keyText == null) {
+                keyText = buildKeyButtonText(this);
+            }
+            return keyText;
+        }
+
+        private Text triggerText() {
+            if (triggerText == null) {
+                triggerText = buildTriggerButtonText(this);
+            }
+            return triggerText;
+        }
+
+        private Tooltip triggerTooltip() {
+            if (triggerTooltip == null) {
+                triggerTooltip = buildTriggerTooltip(this);
+            }
+            return triggerTooltip;
+        }
+    }
+
+    // Custom ElementListWidget for keybind entries. The list only draws rows inside its bounds, and rows
+    // create their buttons the first time they are drawn, so long lists only cost what is on screen
     private class KeybindListWidget extends ElementListWidget<KeybindListWidget.ListEntry> {
         public KeybindListWidget(net.minecraft.client.MinecraftClient client, int width, int height, int top, int itemHeight) {
             super(client, width, height, top, itemHeight);
+        }
 
-            // Add header entry first
-            this.addEntry(new HeaderEntry());
+        // Recreates the rows after slots were added or removed, or the search changed
+        public void rebuild() {
+            this.clearEntries();
+            if (isSearching()) {
+                int count = search.size();
+                this.addEntry(new HeaderEntry(count == 0
+                        ? Text.literal("No key name starts with \"" + search.prefix() + "\"")
+                        : Text.literal("Click a key to add it:")));
+                for (int i = 0; i < count; i += 2) {
+                    this.addEntry(new ResultEntry(i, Math.min(i + 1, count - 1)));
+                }
+            } else {
+                // Detection mode toggle above the key list
+                this.addEntry(new InputModeEntry());
+
+                // Add header entry first
+                this.addEntry(new HeaderEntry(Text.literal("Keys (or mouse and gamepad buttons) that exit the GUI's:")));
 
-            // Add entries for 5 rows (each row contains 2 buttons)
-            for (int i = 0; i < 5; i++) {
-                this.addEntry(new KeybindEntry(i * 2, i * 2 + 1)); // Pass two slot indices
+                // Two slots per row, with the add slot after the last one
+                for (int i = 0; i <= slots.size(); i += 2) {
+                    this.addEntry(new KeybindEntry(slotAt(i), slotAt(i + 1)));
+                }
             }
+            // Clamp the scroll position to the new length
+            this.setScrollY(this.getScrollY());
         }
 
-        @Override
-        public void renderWidget(DrawContext context, int mouseX, int mouseY, float delta) {
-            // Call the parent render method to draw the entries
-            super.renderWidget(context, mouseX, mouseY, delta);
+        private Slot slotAt(int index) {
+            if (index < slots.size()) {
+                return slots.get(index);
+            }
+            return index == slots.size() ? addSlot : null;
+        }
+
+        public boolean isMouseOverKeybindButton(double mouseX, double mouseY) {
+            // Only the row under the mouse can be hit
+            ListEntry entry = this.getEntryAtPosition(mouseX, mouseY);
+            return entry instanceof KeybindEntry keybindEntry && keybindEntry.isMouseOverButton(mouseX, mouseY);
         }
 
         @Override
@@ -274,11 +481,16 @@ public class ConfigMenu extends Screen {
 
         // Header entry for the label text
         public class HeaderEntry extends ListEntry {
+            private final Text text;
+
+            public HeaderEntry(Text text) {
+                this.text = text.copy().styled(style -> style.withColor(Formatting.GRAY));
+            }
+
             @Override
             public void render(DrawContext context, int index, int y, int x, int entryWidth, int entryHeight, int mouseX, int mouseY, boolean hovered, float tickDelta) {
                 // Fixed: Added alpha channel (0xFF) to make text visible in 1.21.6
-                context.drawCenteredTextWithShadow(ConfigMenu.this.textRenderer,
-                        Text.literal("Keys (or mouse buttons) that exit the GUI's:").styled(style -> style.withColor(Formatting.GRAY)),
+                context.drawCenteredTextWithShadow(ConfigMenu.this.textRenderer, text,
                         x + entryWidth / 2, y + (entryHeight - 9) / 2, 0xFFAAAAAA); // Changed from Formatting.GRAY.getColorValue() to 0xFFAAAAAA
             }
 
@@ -293,66 +505,219 @@ public class ConfigMenu extends Screen {
             }
         }
 
-        public class KeybindEntry extends ListEntry {
-            private final int leftSlot;
-            private final int rightSlot;
-            private final ButtonWidget leftButton;
-            private final ButtonWidget rightButton;
+        // Single button that switches between event-driven and polling detection
+        public class InputModeEntry extends ListEntry {
+            private final ButtonWidget modeButton;
 
-            public KeybindEntry(int leftSlot, int rightSlot) {
-                this.leftSlot = leftSlot;
-                this.rightSlot = rightSlot;
-
-                this.leftButton = ButtonWidget.builder(getKeyButtonText(leftSlot), button -> {
-                            startKeyBinding(leftSlot);
+            public InputModeEntry() {
+                this.modeButton = ButtonWidget.builder(getInputModeButtonText(), button -> {
+                            toggleInputMode();
+                            refreshButton();
                         })
-                        .dimensions(0, 0, 145, 20)
+                        .dimensions(0, 0, 300, 20)
                         .build();
+            }
+
+            @Override
+            public void render(DrawContext context, int index, int y, int x, int entryWidth, int entryHeight, int mouseX, int mouseY, boolean hovered, float tickDelta) {
+                modeButton.setX(x + (entryWidth - 300) / 2);
+                modeButton.setY(y + (entryHeight - 20) / 2);
+                modeButton.render(context, mouseX, mouseY, tickDelta);
+            }
+
+            @Override
+            public List<? extends Element> children() {
+                return List.of(modeButton);
+            }
+
+            @Override
+            public List<? extends Selectable> selectableChildren() {
+                return List.of(modeButton);
+            }
+
+            public void refreshButton() {
+                modeButton.setMessage(getInputModeButtonText());
+            }
+        }
 
-                this.rightButton = ButtonWidget.builder(getKeyButtonText(rightSlot), button -> {
-                            startKeyBinding(rightSlot);
+        // Key button plus trigger button of one slot
+        private class SlotButtons {
+            private final Slot slot;
+            private final ButtonWidget keyButton;
+            private final ButtonWidget triggerButton; // null for the add slot, which has no key to trigger yet
+            private int shownVersion;
+
+            private SlotButtons(Slot slot) {
+                this.slot = slot;
+                this.shownVersion = slot.version;
+                this.keyButton = ButtonWidget.builder(slot.keyText(), button -> {
+                            startKeyBinding(slot);
                         })
-                        .dimensions(0, 0, 145, 20)
+                        .dimensions(0, 0, 100, 20)
+                        .build();
+                this.triggerButton = slot == addSlot ? null : ButtonWidget.builder(slot.triggerText(), button -> {
+                            cycleTrigger(slot);
+                        })
+                        .dimensions(0, 0, 40, 20)
+                        .tooltip(slot.triggerTooltip())
                         .build();
             }
 
+            // Takes over the slot's new texts if it changed since the last frame
+            private void refresh() {
+                if (shownVersion == slot.version) {
+                    return;
+                }
+                shownVersion = slot.version;
+                keyButton.setMessage(slot.keyText());
+                if (triggerButton != null) {
+                    triggerButton.setMessage(slot.triggerText());
+                    triggerButton.setTooltip(slot.triggerTooltip());
+                }
+            }
+
+            private void render(DrawContext context, int x, int y, int mouseX, int mouseY, float tickDelta, int triggerButtonX) {
+                refresh();
+                keyButton.setX(x);
+                keyButton.setY(y);
+                keyButton.render(context, mouseX, mouseY, tickDelta);
+                if (triggerButton != null) {
+                    triggerButton.setX(triggerButtonX);
+                    triggerButton.setY(y);
+                    triggerButton.render(context, mouseX, mouseY, tickDelta);
+                }
+            }
+
+            private void addTo(List<ButtonWidget> buttons) {
+                buttons.add(keyButton);
+                if (triggerButton != null) {
+                    buttons.add(triggerButton);
+                }
+            }
+        }
+
+        public class KeybindEntry extends ListEntry {
+            private final Slot leftSlot;
+            private final Slot rightSlot; // null when the row only has the left slot
+            // Created when the row is first drawn or clicked
+            private SlotButtons left;
+            private SlotButtons right;
+            private List<ButtonWidget> buttons;
+
+            public KeybindEntry(Slot leftSlot, Slot rightSlot) {
+                this.leftSlot = leftSlot;
+                this.rightSlot = rightSlot;
+            }
+
+            private List<ButtonWidget> buttons() {
+                if (buttons == null) {
+                    buttons = new ArrayList<>(4);
+                    left = new SlotButtons(leftSlot);
+                    left.addTo(buttons);
+                    if (rightSlot != null) {
+                        right = new SlotButtons(rightSlot);
+                        right.addTo(buttons);
+                    }
+                }
+                return buttons;
+            }
+
             @Override
             public void render(DrawContext context, int index, int y, int x, int entryWidth, int entryHeight, int mouseX, int mouseY, boolean hovered, float tickDelta) {
-                // Center the buttons properly within the entry
-                int buttonWidth = 145;
+                buttons();
+
+                // Center the buttons properly within the entry; each slot is a key button plus a trigger button
+                int keyButtonWidth = 100;
+                int triggerButtonWidth = 40;
+                int innerSpacing = 5;
+                int slotWidth = keyButtonWidth + innerSpacing + triggerButtonWidth;
                 int buttonSpacing = 10;
-                int totalButtonWidth = (buttonWidth * 2) + buttonSpacing;
+                int totalButtonWidth = (slotWidth * 2) + buttonSpacing;
                 int startX = x + (entryWidth - totalButtonWidth) / 2;
                 int buttonY = y + (entryHeight - 20) / 2;
 
-                // Left button
-                leftButton.setX(startX);
-                leftButton.setY(buttonY);
-                leftButton.render(context, mouseX, mouseY, tickDelta);
+                // Left slot
+                left.render(context, startX, buttonY, mouseX, mouseY, tickDelta, startX + keyButtonWidth + innerSpacing);
 
-                // Right button
-                rightButton.setX(startX + buttonWidth + buttonSpacing);
-                rightButton.setY(buttonY);
-                rightButton.render(context, mouseX, mouseY, tickDelta);
+                // Right slot
+                if (right != null) {
+                    int rightX = startX + slotWidth + buttonSpacing;
+                    right.render(context, rightX, buttonY, mouseX, mouseY, tickDelta, rightX + keyButtonWidth + innerSpacing);
+                }
             }
 
             @Override
             public List<? extends Element> children() {
-                return List.of(leftButton, rightButton);
+                return buttons();
             }
 
             @Override
             public List<? extends Selectable> selectableChildren() {
-                return List.of(leftButton, rightButton);
+                return buttons();
             }
 
-            public void refreshButton() {
-                leftButton.setMessage(getKeyButtonText(leftSlot));
-                rightButton.setMessage(getKeyButtonText(rightSlot));
+            public boolean isMouseOverButton(double mouseX, double mouseY) {
+                return buttons != null && (left.keyButton.isMouseOver(mouseX, mouseY)
+                        || right != null && right.keyButton.isMouseOver(mouseX, mouseY));
             }
+        }
 
-            public boolean isMouseOverButton(double mouseX, double mouseY) {
-                return leftButton.isMouseOver(mouseX, mouseY) || rightButton.isMouseOver(mouseX, mouseY);
+        // Up to two search results; clicking one adds that key, or binds it if a slot is waiting
+        public class ResultEntry extends ListEntry {
+            private final int leftIndex;
+            private final int rightIndex; // same as leftIndex when the row has a single result
+            private List<ButtonWidget> buttons; // created when the row is first drawn or clicked
+
+            public ResultEntry(int leftIndex, int rightIndex) {
+                this.leftIndex = leftIndex;
+                this.rightIndex = rightIndex;
+            }
+
+            private List<ButtonWidget> buttons() {
+                if (buttons == null) {
+                    buttons = new ArrayList<>(2);
+                    buttons.add(createResultButton(leftIndex));
+                    if (rightIndex != leftIndex) {
+                        buttons.add(createResultButton(rightIndex));
+                    }
+                }
+                return buttons;
+            }
+
+            private ButtonWidget createResultButton(int index) {
+                int code = search.code(index);
+                return ButtonWidget.builder(KeyLabels.get(code), button -> {
+                            pickKey(code);
+                        })
+                        .dimensions(0, 0, 145, 20)
+                        // The name used in closeonmove.json, which can differ from the label
+                        .tooltip(Tooltip.of(Text.literal(search.name(index))))
+                        .build();
+            }
+
+            @Override
+            public void render(DrawContext context, int index, int y, int x, int entryWidth, int entryHeight, int mouseX, int mouseY, boolean hovered, float tickDelta) {
+                List<ButtonWidget> resultButtons = buttons();
+                int buttonWidth = 145;
+                int buttonSpacing = 10;
+                int startX = x + (entryWidth - (buttonWidth * 2 + buttonSpacing)) / 2;
+                int buttonY = y + (entryHeight - 20) / 2;
+                for (int i = 0; i < resultButtons.size(); i++) {
+                    ButtonWidget button = resultButtons.get(i);
+                    button.setX(startX + i * (buttonWidth + buttonSpacing));
+                    button.setY(buttonY);
+                    button.render(context, mouseX, mouseY, tickDelta);
+                }
+            }
+
+            @Override
+            public List<? extends Element> children() {
+                return buttons();
+            }
+
+            @Override
+            public List<? extends Selectable> selectableChildren() {
+                return buttons();
             }
         }
     }
@@ -364,4 +729,4 @@ public class ConfigMenu extends Screen {
             return ConfigMenu::new;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,120 @@
+package com.heldheld.closeonmove.config;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// A named set of close keys, triggers and screen rules used instead of the top-level ones on matching servers
+// or singleplayer worlds. Whatever the profile leaves out comes from the top-level settings. The merged rules
+// are compiled when the config loads or changes, so switching profiles only swaps a reference.
+public final class ConfigProfile {
+    private static final String DEFAULT_PORT_SUFFIX = ":25565";
+
+    private final String name;
+    // Lower case, without the default port; "*.example.net" matches example.net and all of its subdomains
+    private final List<String> servers;
+    private final List<String> worlds;
+    @Nullable
+    private final CloseKeySet keys;
+    @Nullable
+    private final CloseTriggers triggers;
+    @Nullable
+    private final List<ScreenRule> screenRules;
+    private final CloseRules rules;
+
+    ConfigProfile(String name, List<String> servers, List<String> worlds, @Nullable CloseKeySet keys,
+                  @Nullable CloseTriggers triggers, @Nullable List<ScreenRule> screenRules, CloseRules defaults) {
+        this.name = name;
+        this.servers = normalizeAll(servers);
+        this.worlds = List.copyOf(worlds);
+        this.keys = keys;
+        this.triggers = triggers;
+        this.screenRules = screenRules == null ? null : List.copyOf(screenRules);
+        this.rules = CloseRules.compile(
+                keys != null ? keys : defaults.getDefaultKeys(),
+                triggers != null ? triggers : defaults.getTriggers(),
+                screenRules != null ? this.screenRules : defaults.getRules());
+    }
+
+    // The same profile recompiled on top of changed top-level settings
+    ConfigProfile withDefaults(CloseRules defaults) {
+        return new ConfigProfile(name, servers, worlds, keys, triggers, screenRules, defaults);
+    }
+
+    public boolean matchesServer(String address) {
+        String normalized = normalize(address);
+        for (String server : servers) {
+            if (server.startsWith("*.")) {
+                String domain = server.substring(2);
+                if (normalized.equals(domain) || normalized.endsWith(server.substring(1))) {
+                    return true;
+                }
+            } else if (normalized.equals(server)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean matchesWorld(String worldName) {
+        for (String world : worlds) {
+            if (world.equalsIgnoreCase(worldName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CloseRules getRules() {
+        return rules;
+    }
+
+    List<String> getServers() {
+        return servers;
+    }
+
+    List<String> getWorlds() {
+        return worlds;
+    }
+
+    // What the profile sets itself, null where it uses the top-level settings
+    @Nullable
+    CloseKeySet getKeys() {
+        return keys;
+    }
+
+    @Nullable
+    CloseTriggers getTriggers() {
+        return triggers;
+    }
+
+    @Nullable
+    List<ScreenRule> getScreenRules() {
+        return screenRules;
+    }
+
+    private static List<String> normalizeAll(List<String> addresses) {
+        List<String> normalized = new ArrayList<>(addresses.size());
+        for (String address : addresses) {
+            normalized.add(normalize(address));
+        }
+        return List.copyOf(normalized);
+    }
+
+    private static String normalize(String address) {
+        String normalized = address.trim().toLowerCase(Locale.ROOT);
+        if (normalized.endsWith(DEFAULT_PORT_SUFFIX)) {
+            normalized = normalized.substring(0, normalized.length() - DEFAULT_PORT_SUFFIX.length());
+        }
+        if (normalized.endsWith(".")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+}
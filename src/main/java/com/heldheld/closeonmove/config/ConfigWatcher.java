@@ -0,0 +1,85 @@
+package com.heldheld.closeonmove.config;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+// Watches the config directory and reloads closeonmove.json when it is changed by something other than the game.
+// Events are debounced, so an editor or deployment tool writing the file in several steps causes a single reload.
+public class ConfigWatcher {
+    private static final long DEBOUNCE_MS = 250;
+
+    private final Config config;
+    private final Path configFileName;
+    private final WatchService watchService;
+
+    private ConfigWatcher(Config config, Path configDir, WatchService watchService) throws IOException {
+        this.config = config;
+        this.configFileName = Path.of(Config.getConfigFileName());
+        this.watchService = watchService;
+        configDir.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    // Returns null if the directory cannot be watched; the game then simply works without hot reload
+    public static ConfigWatcher start(Config config) {
+        Path configDir = Config.getConfigDir();
+        try {
+            Files.createDirectories(configDir);
+            ConfigWatcher watcher = new ConfigWatcher(config, configDir, FileSystems.getDefault().newWatchService());
+            Thread.ofVirtual().name("closeonmove-config-watcher").start(watcher::run);
+            return watcher;
+        } catch (IOException e) {
+            System.err.println("Failed to watch config directory: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public void stop() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // Shutting down anyway
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                boolean changed = isConfigChange(watchService.take());
+
+                // Wait until the directory has been quiet for a moment before reloading
+                WatchKey next;
+                while ((next = watchService.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= isConfigChange(next);
+                }
+
+                if (changed) {
+                    config.reloadFromDisk();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watcher stopped
+        }
+    }
+
+    private boolean isConfigChange(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // Overflow means events were lost, so the file may have changed
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || configFileName.equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+}
@@ -0,0 +1,119 @@
+package com.heldheld.closeonmove.config;
+
+import com.heldheld.closeonmove.debug.jfr.ConfigIoEvent;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// Writes the config file on a background virtual thread.
+// Saves that arrive while a write is pending replace each other, so a burst of changes becomes one write.
+// The file is written to a temp file first and then moved over the real one, so a crash never leaves it truncated.
+final class ConfigWriter {
+    // Short delay before writing, so several setters called in a row end up in the same write
+    private static final long COALESCE_DELAY_MS = 100;
+    private static final long FLUSH_TIMEOUT_MS = 2000;
+
+    private final Path target;
+    private final Object lock = new Object();
+
+    // Latest unwritten content, null when nothing is pending
+    private String pending;
+    private boolean writerRunning;
+
+    ConfigWriter(Path target) {
+        this.target = target;
+    }
+
+    void submit(String json) {
+        synchronized (lock) {
+            pending = json;
+            if (writerRunning) {
+                return;
+            }
+            writerRunning = true;
+        }
+        Thread.ofVirtual().name("closeonmove-config-writer").start(this::drain);
+    }
+
+    // Whether submitted content has not reached the file yet, so the file on disk may be older than it
+    boolean hasPending() {
+        synchronized (lock) {
+            return writerRunning;
+        }
+    }
+
+    // Blocks until everything submitted so far is on disk; used on client shutdown
+    void flush() {
+        synchronized (lock) {
+            long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MS;
+            while (writerRunning) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    System.err.println("Timed out waiting for config to be saved");
+                    return;
+                }
+                try {
+                    lock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            Thread.sleep(COALESCE_DELAY_MS);
+        } catch (InterruptedException e) {
+            // Write right away
+        }
+
+        while (true) {
+            String json;
+            synchronized (lock) {
+                json = pending;
+                pending = null;
+                if (json == null) {
+                    writerRunning = false;
+                    lock.notifyAll();
+                    return;
+                }
+            }
+            write(json);
+        }
+    }
+
+    // Package-private so benchmarks can measure the write path without the coalescing delay
+    void write(String json) {
+        ConfigIoEvent event = new ConfigIoEvent();
+        event.begin();
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        boolean success = false;
+        try {
+            Files.createDirectories(target.getParent());
+            Files.write(temp, bytes);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            success = true;
+        } catch (IOException e) {
+            System.err.println("Failed to save config: " + e.getMessage());
+        }
+
+        if (event.shouldCommit()) {
+            event.operation = "save";
+            event.bytes = bytes.length;
+            event.success = success;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.heldheld.closeonmove.config;
+
+import com.heldheld.closeonmove.CloseOnMove;
+import com.heldheld.closeonmove.input.GamepadInput;
+import com.heldheld.closeonmove.input.KeyStateTracker;
+import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
+import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
+import net.minecraft.client.util.InputUtil;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.resource.ResourceType;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+
+import java.util.Arrays;
+
+// Display labels for close keys, in the player's language and keyboard layout. These are only shown
+// in the UI; the config file always uses the stable names from KeyNames. Labels are built on first use
+// and dropped whenever client resources reload, which is when the language can change.
+public final class KeyLabels {
+    private static final Text[] LABELS = new Text[KeyStateTracker.SIZE];
+
+    private KeyLabels() {
+    }
+
+    public static void register() {
+        ResourceManagerHelper.get(ResourceType.CLIENT_RESOURCES).registerReloadListener(new SimpleSynchronousResourceReloadListener() {
+            @Override
+            public Identifier getFabricId() {
+                return Identifier.of(CloseOnMove.MOD_ID, "key_labels");
+            }
+
+            @Override
+            public void reload(ResourceManager manager) {
+                Arrays.fill(LABELS, null);
+            }
+        });
+    }
+
+    // Render thread only
+    public static Text get(int code) {
+        if (!KeyStateTracker.isTrackable(code)) {
+            return Text.literal(KeyNames.name(code));
+        }
+        Text label = LABELS[code];
+        if (label == null) {
+            label = create(code);
+            LABELS[code] = label;
+        }
+        return label;
+    }
+
+    private static Text create(int code) {
+        // Minecraft has no translations for gamepad inputs
+        if (GamepadInput.isGamepadInput(code)) {
+            return Text.literal(KeyNames.name(code));
+        }
+        InputUtil.Type type = CloseKeySet.isMouseButton(code) ? InputUtil.Type.MOUSE : InputUtil.Type.KEYSYM;
+        return type.createFromCode(code).getLocalizedText();
+    }
+}
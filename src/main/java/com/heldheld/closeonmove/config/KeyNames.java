@@ -0,0 +1,327 @@
+package com.heldheld.closeonmove.config;
+
+import com.heldheld.closeonmove.input.GamepadInput;
+import com.heldheld.closeonmove.input.KeyStateTracker;
+import org.lwjgl.glfw.GLFW;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// The stable, language-independent input names written to the config file. Code to name is a dense array
+// indexed by code; name to code is a binary search over the names sorted case-insensitively, so neither
+// direction allocates. Codes without a name are written as KEY_<code> and read back the same way,
+// as long as they fit the tracked range. Only compile-time constants are involved, so the server side can
+// check key names too.
+public final class KeyNames {
+    private static final String UNKNOWN_PREFIX = "KEY_";
+
+    private static final String[] NAMES = new String[KeyStateTracker.SIZE];
+    private static final String[] SORTED_NAMES;
+    private static final int[] SORTED_CODES;
+    private static final Set<String> ALL;
+
+    static {
+        // Initialize key mappings - Letters
+        add(GLFW.GLFW_KEY_A, "A");
+        add(GLFW.GLFW_KEY_B, "B");
+        add(GLFW.GLFW_KEY_C, "C");
+        add(GLFW.GLFW_KEY_D, "D");
+        add(GLFW.GLFW_KEY_E, "E");
+        add(GLFW.GLFW_KEY_F, "F");
+        add(GLFW.GLFW_KEY_G, "G");
+        add(GLFW.GLFW_KEY_H, "H");
+        add(GLFW.GLFW_KEY_I, "I");
+        add(GLFW.GLFW_KEY_J, "J");
+        add(GLFW.GLFW_KEY_K, "K");
+        add(GLFW.GLFW_KEY_L, "L");
+        add(GLFW.GLFW_KEY_M, "M");
+        add(GLFW.GLFW_KEY_N, "N");
+        add(GLFW.GLFW_KEY_O, "O");
+        add(GLFW.GLFW_KEY_P, "P");
+        add(GLFW.GLFW_KEY_Q, "Q");
+        add(GLFW.GLFW_KEY_R, "R");
+        add(GLFW.GLFW_KEY_S, "S");
+        add(GLFW.GLFW_KEY_T, "T");
+        add(GLFW.GLFW_KEY_U, "U");
+        add(GLFW.GLFW_KEY_V, "V");
+        add(GLFW.GLFW_KEY_W, "W");
+        add(GLFW.GLFW_KEY_X, "X");
+        add(GLFW.GLFW_KEY_Y, "Y");
+        add(GLFW.GLFW_KEY_Z, "Z");
+
+        // Numbers
+        add(GLFW.GLFW_KEY_0, "0");
+        add(GLFW.GLFW_KEY_1, "1");
+        add(GLFW.GLFW_KEY_2, "2");
+        add(GLFW.GLFW_KEY_3, "3");
+        add(GLFW.GLFW_KEY_4, "4");
+        add(GLFW.GLFW_KEY_5, "5");
+        add(GLFW.GLFW_KEY_6, "6");
+        add(GLFW.GLFW_KEY_7, "7");
+        add(GLFW.GLFW_KEY_8, "8");
+        add(GLFW.GLFW_KEY_9, "9");
+
+        // Function Keys
+        add(GLFW.GLFW_KEY_F1, "F1");
+        add(GLFW.GLFW_KEY_F2, "F2");
+        add(GLFW.GLFW_KEY_F3, "F3");
+        add(GLFW.GLFW_KEY_F4, "F4");
+        add(GLFW.GLFW_KEY_F5, "F5");
+        add(GLFW.GLFW_KEY_F6, "F6");
+        add(GLFW.GLFW_KEY_F7, "F7");
+        add(GLFW.GLFW_KEY_F8, "F8");
+        add(GLFW.GLFW_KEY_F9, "F9");
+        add(GLFW.GLFW_KEY_F10, "F10");
+        add(GLFW.GLFW_KEY_F11, "F11");
+        add(GLFW.GLFW_KEY_F12, "F12");
+        add(GLFW.GLFW_KEY_F13, "F13");
+        add(GLFW.GLFW_KEY_F14, "F14");
+        add(GLFW.GLFW_KEY_F15, "F15");
+        add(GLFW.GLFW_KEY_F16, "F16");
+        add(GLFW.GLFW_KEY_F17, "F17");
+        add(GLFW.GLFW_KEY_F18, "F18");
+        add(GLFW.GLFW_KEY_F19, "F19");
+        add(GLFW.GLFW_KEY_F20, "F20");
+        add(GLFW.GLFW_KEY_F21, "F21");
+        add(GLFW.GLFW_KEY_F22, "F22");
+        add(GLFW.GLFW_KEY_F23, "F23");
+        add(GLFW.GLFW_KEY_F24, "F24");
+        add(GLFW.GLFW_KEY_F25, "F25");
+
+        // Arrow Keys
+        add(GLFW.GLFW_KEY_UP, "Up");
+        add(GLFW.GLFW_KEY_DOWN, "Down");
+        add(GLFW.GLFW_KEY_LEFT, "Left");
+        add(GLFW.GLFW_KEY_RIGHT, "Right");
+
+        // Special Keys
+        add(GLFW.GLFW_KEY_SPACE, "Space");
+        add(GLFW.GLFW_KEY_ENTER, "Enter");
+        add(GLFW.GLFW_KEY_TAB, "Tab");
+        add(GLFW.GLFW_KEY_BACKSPACE, "Backspace");
+        add(GLFW.GLFW_KEY_DELETE, "Delete");
+        add(GLFW.GLFW_KEY_INSERT, "Insert");
+        add(GLFW.GLFW_KEY_HOME, "Home");
+        add(GLFW.GLFW_KEY_END, "End");
+        add(GLFW.GLFW_KEY_PAGE_UP, "Page Up");
+        add(GLFW.GLFW_KEY_PAGE_DOWN, "Page Down");
+
+        // Modifier Keys
+        add(GLFW.GLFW_KEY_LEFT_SHIFT, "Left Shift");
+        add(GLFW.GLFW_KEY_RIGHT_SHIFT, "Right Shift");
+        add(GLFW.GLFW_KEY_LEFT_CONTROL, "Left Control");
+        add(GLFW.GLFW_KEY_RIGHT_CONTROL, "Right Control");
+        add(GLFW.GLFW_KEY_LEFT_ALT, "Left Alt");
+        add(GLFW.GLFW_KEY_RIGHT_ALT, "Right Alt");
+        add(GLFW.GLFW_KEY_LEFT_SUPER, "Left Win");
+        add(GLFW.GLFW_KEY_RIGHT_SUPER, "Right Win");
+        add(GLFW.GLFW_KEY_MENU, "Menu");
+
+        // Lock Keys
+        add(GLFW.GLFW_KEY_CAPS_LOCK, "Caps Lock");
+        add(GLFW.GLFW_KEY_SCROLL_LOCK, "Scroll Lock");
+        add(GLFW.GLFW_KEY_NUM_LOCK, "Num Lock");
+
+        // Keypad Numbers
+        add(GLFW.GLFW_KEY_KP_0, "Keypad 0");
+        add(GLFW.GLFW_KEY_KP_1, "Keypad 1");
+        add(GLFW.GLFW_KEY_KP_2, "Keypad 2");
+        add(GLFW.GLFW_KEY_KP_3, "Keypad 3");
+        add(GLFW.GLFW_KEY_KP_4, "Keypad 4");
+        add(GLFW.GLFW_KEY_KP_5, "Keypad 5");
+        add(GLFW.GLFW_KEY_KP_6, "Keypad 6");
+        add(GLFW.GLFW_KEY_KP_7, "Keypad 7");
+        add(GLFW.GLFW_KEY_KP_8, "Keypad 8");
+        add(GLFW.GLFW_KEY_KP_9, "Keypad 9");
+
+        // Keypad Operations
+        add(GLFW.GLFW_KEY_KP_DECIMAL, "Keypad .");
+        add(GLFW.GLFW_KEY_KP_DIVIDE, "Keypad /");
+        add(GLFW.GLFW_KEY_KP_MULTIPLY, "Keypad *");
+        add(GLFW.GLFW_KEY_KP_SUBTRACT, "Keypad -");
+        add(GLFW.GLFW_KEY_KP_ADD, "Keypad +");
+        add(GLFW.GLFW_KEY_KP_ENTER, "Keypad Enter");
+        add(GLFW.GLFW_KEY_KP_EQUAL, "Keypad =");
+
+        // Punctuation and Symbols
+        add(GLFW.GLFW_KEY_SEMICOLON, ";");
+        add(GLFW.GLFW_KEY_EQUAL, "=");
+        add(GLFW.GLFW_KEY_COMMA, ",");
+        add(GLFW.GLFW_KEY_MINUS, "-");
+        add(GLFW.GLFW_KEY_PERIOD, ".");
+        add(GLFW.GLFW_KEY_SLASH, "/");
+        add(GLFW.GLFW_KEY_GRAVE_ACCENT, "`");
+        add(GLFW.GLFW_KEY_LEFT_BRACKET, "[");
+        add(GLFW.GLFW_KEY_BACKSLASH, "\\");
+        add(GLFW.GLFW_KEY_RIGHT_BRACKET, "]");
+        add(GLFW.GLFW_KEY_APOSTROPHE, "'");
+
+        // Print Screen and Pause
+        add(GLFW.GLFW_KEY_PRINT_SCREEN, "Print Screen");
+        add(GLFW.GLFW_KEY_PAUSE, "Pause");
+
+        // World Keys (for international keyboards)
+        add(GLFW.GLFW_KEY_WORLD_1, "World 1");
+        add(GLFW.GLFW_KEY_WORLD_2, "World 2");
+
+        // Mouse Buttons
+        add(GLFW.GLFW_MOUSE_BUTTON_LEFT, "Left Button");
+        add(GLFW.GLFW_MOUSE_BUTTON_RIGHT, "Right Button");
+        add(GLFW.GLFW_MOUSE_BUTTON_MIDDLE, "Middle Button");
+        add(GLFW.GLFW_MOUSE_BUTTON_4, "Back Button");
+        add(GLFW.GLFW_MOUSE_BUTTON_5, "Forward Button");
+        add(GLFW.GLFW_MOUSE_BUTTON_6, "Button 6");
+        add(GLFW.GLFW_MOUSE_BUTTON_7, "Button 7");
+        add(GLFW.GLFW_MOUSE_BUTTON_8, "Button 8");
+
+        // Gamepad Buttons
+        add(GamepadInput.button(GLFW.GLFW_GAMEPAD_BUTTON_A), "Gamepad A");
+        add(GamepadInput.button(GLFW.GLFW_GAMEPAD_BUTTON_B), "Gamepad B");
+        add(GamepadInput.button(GLFW.GLFW_GAMEPAD_BUTTON_X), "Gamepad X");
+        add(GamepadInput.button(GLFW.GLFW_GAMEPAD_BUTTON_Y), "Gamepad Y");
+        add(GamepadInput.button(GLFW.GLFW_GAMEPAD_BUTTON_LEFT_BUMPER), "Gamepad LB");
+        add(GamepadInput.button(GLFW.GLFW_GAMEPAD_BUTTON_RIGHT_BUMPER), "Gamepad RB");
+        add(GamepadInput.button(GLFW.GLFW_GAMEPAD_BUTTON_BACK), "Gamepad Back");
+        add(GamepadInput.button(GLFW.GLFW_GAMEPAD_BUTTON_START), "Gamepad Start");
+        add(GamepadInput.button(GLFW.GLFW_GAMEPAD_BUTTON_GUIDE), "Gamepad Guide");
+        add(GamepadInput.button(GLFW.GLFW_GAMEPAD_BUTTON_LEFT_THUMB), "Gamepad Left Stick");
+        add(GamepadInput.button(GLFW.GLFW_GAMEPAD_BUTTON_RIGHT_THUMB), "Gamepad Right Stick");
+        add(GamepadInput.button(GLFW.GLFW_GAMEPAD_BUTTON_DPAD_UP), "Gamepad Up");
+        add(GamepadInput.button(GLFW.GLFW_GAMEPAD_BUTTON_DPAD_RIGHT), "Gamepad Right");
+        add(GamepadInput.button(GLFW.GLFW_GAMEPAD_BUTTON_DPAD_DOWN), "Gamepad Down");
+        add(GamepadInput.button(GLFW.GLFW_GAMEPAD_BUTTON_DPAD_LEFT), "Gamepad Left");
+
+        // Gamepad Sticks and Triggers
+        add(GamepadInput.LEFT_STICK_LEFT, "Left Stick Left");
+        add(GamepadInput.LEFT_STICK_RIGHT, "Left Stick Right");
+        add(GamepadInput.LEFT_STICK_UP, "Left Stick Up");
+        add(GamepadInput.LEFT_STICK_DOWN, "Left Stick Down");
+        add(GamepadInput.RIGHT_STICK_LEFT, "Right Stick Left");
+        add(GamepadInput.RIGHT_STICK_RIGHT, "Right Stick Right");
+        add(GamepadInput.RIGHT_STICK_UP, "Right Stick Up");
+        add(GamepadInput.RIGHT_STICK_DOWN, "Right Stick Down");
+        add(GamepadInput.LEFT_TRIGGER, "Left Trigger");
+        add(GamepadInput.RIGHT_TRIGGER, "Right Trigger");
+
+        int count = 0;
+        for (String name : NAMES) {
+            if (name != null) {
+                count++;
+            }
+        }
+        Integer[] order = new Integer[count];
+        int next = 0;
+        for (int code = 0; code < NAMES.length; code++) {
+            if (NAMES[code] != null) {
+                order[next++] = code;
+            }
+        }
+        Arrays.sort(order, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(NAMES[a], NAMES[b]));
+        SORTED_NAMES = new String[count];
+        SORTED_CODES = new int[count];
+        Set<String> all = new LinkedHashSet<>();
+        for (int i = 0; i < count; i++) {
+            SORTED_CODES[i] = order[i];
+            SORTED_NAMES[i] = NAMES[order[i]];
+            all.add(SORTED_NAMES[i]);
+        }
+        ALL = Collections.unmodifiableSet(all);
+    }
+
+    private KeyNames() {
+    }
+
+    public static String name(int code) {
+        String name = code >= 0 && code < NAMES.length ? NAMES[code] : null;
+        return name != null ? name : UNKNOWN_PREFIX + code;
+    }
+
+    // Case-insensitive; -1 when the name is unknown
+    public static int code(String name) {
+        int low = 0;
+        int high = SORTED_NAMES.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = String.CASE_INSENSITIVE_ORDER.compare(SORTED_NAMES[mid], name);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return SORTED_CODES[mid];
+            }
+        }
+        return parseUnknown(name);
+    }
+
+    // Sorted by name, built once
+    public static Set<String> all() {
+        return ALL;
+    }
+
+    // The sorted index, for prefix searches. Names sharing a prefix are contiguous in this order
+    static int count() {
+        return SORTED_NAMES.length;
+    }
+
+    static String sortedName(int index) {
+        return SORTED_NAMES[index];
+    }
+
+    static int sortedCode(int index) {
+        return SORTED_CODES[index];
+    }
+
+    // First index in [from, to) whose name sorts at or after the prefix
+    static int lowerBound(String prefix, int from, int to) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (String.CASE_INSENSITIVE_ORDER.compare(SORTED_NAMES[mid], prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First index in [from, to) whose name doesn't start with the prefix; from must be the prefix's lowerBound
+    static int prefixEnd(String prefix, int from, int to) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (SORTED_NAMES[mid].regionMatches(true, 0, prefix, 0, prefix.length())) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int parseUnknown(String name) {
+        int length = name.length();
+        int prefix = UNKNOWN_PREFIX.length();
+        if (length == prefix || length > prefix + 9 || !name.regionMatches(true, 0, UNKNOWN_PREFIX, 0, prefix)) {
+            return -1;
+        }
+        int code = 0;
+        for (int i = prefix; i < length; i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            code = code * 10 + (c - '0');
+        }
+        return code < NAMES.length ? code : -1;
+    }
+
+    private static void add(int code, String name) {
+        NAMES[code] = name;
+    }
+}
@@ -0,0 +1,43 @@
+package com.heldheld.closeonmove.config;
+
+// Case-insensitive prefix search over the key catalog, for the config screen's search box. The matches are
+// a range of KeyNames' sorted index; typing another character only narrows that range, so a keystroke
+// costs two binary searches over the current matches and allocates nothing.
+final class KeySearch {
+    private String prefix = "";
+    private int from;
+    private int to = KeyNames.count();
+
+    // Returns false if the prefix didn't change
+    boolean update(String prefix) {
+        if (prefix.equals(this.prefix)) {
+            return false;
+        }
+        boolean narrows = prefix.length() >= this.prefix.length()
+                && prefix.regionMatches(true, 0, this.prefix, 0, this.prefix.length());
+        if (!narrows) {
+            from = 0;
+            to = KeyNames.count();
+        }
+        from = KeyNames.lowerBound(prefix, from, to);
+        to = KeyNames.prefixEnd(prefix, from, to);
+        this.prefix = prefix;
+        return true;
+    }
+
+    String prefix() {
+        return prefix;
+    }
+
+    int size() {
+        return to - from;
+    }
+
+    int code(int index) {
+        return KeyNames.sortedCode(from + index);
+    }
+
+    String name(int index) {
+        return KeyNames.sortedName(from + index);
+    }
+}
@@ -0,0 +1,58 @@
+package com.heldheld.closeonmove.config;
+
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ServerInfo;
+import net.minecraft.client.option.KeyBinding;
+import net.minecraft.client.util.InputUtil;
+import net.minecraft.server.integrated.IntegratedServer;
+import net.minecraft.text.Text;
+import org.lwjgl.glfw.GLFW;
+
+// Selects the config profile for the server or singleplayer world being joined, and cycles profiles with
+// a key binding. Profiles are compiled with the config, so joining only compares names and swaps a reference.
+public final class ProfileSwitcher {
+    private static KeyBinding cycleKey;
+
+    private ProfileSwitcher() {
+    }
+
+    public static void register() {
+        // Unbound by default, so it doesn't take a key from anything else
+        cycleKey = KeyBindingHelper.registerKeyBinding(new KeyBinding("key.closeonmove.cycle_profile",
+                InputUtil.Type.KEYSYM, GLFW.GLFW_KEY_UNKNOWN, "key.categories.closeonmove"));
+        ClientPlayConnectionEvents.JOIN.register((handler, sender, client) -> onJoin(client));
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> Config.getInstance().clearActiveProfile());
+        ClientTickEvents.END_CLIENT_TICK.register(ProfileSwitcher::onEndTick);
+    }
+
+    private static void onJoin(MinecraftClient client) {
+        Config config = Config.getInstance();
+        if (config.getProfiles().isEmpty()) {
+            return;
+        }
+        IntegratedServer integratedServer = client.getServer();
+        ServerInfo serverInfo = client.getCurrentServerEntry();
+        String worldName = integratedServer != null ? integratedServer.getSaveProperties().getLevelName() : null;
+        String serverAddress = integratedServer == null && serverInfo != null ? serverInfo.address : null;
+        ConfigProfile profile = config.selectProfile(serverAddress, worldName);
+        if (profile != null) {
+            showProfile(client, profile);
+        }
+    }
+
+    private static void onEndTick(MinecraftClient client) {
+        while (cycleKey.wasPressed()) {
+            showProfile(client, Config.getInstance().cycleProfile());
+        }
+    }
+
+    private static void showProfile(MinecraftClient client, ConfigProfile profile) {
+        if (client.player != null) {
+            String name = profile != null ? profile.getName() : "Default";
+            client.player.sendMessage(Text.literal("CloseOnMove profile: " + name), true);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.heldheld.closeonmove.config;
+
+import org.jetbrains.annotations.Nullable;
+
+// One per-screen override from the config file. The screen selector is a category name (e.g. "CONTAINER"),
+// a screen type name (e.g. "creative_inventory") or the class name of a mod screen.
+public record ScreenRule(String screen, Action action, @Nullable CloseKeySet keys) {
+    public enum Action {
+        // Close with the rule's keys, or with the default close keys when the rule has none
+        CLOSE,
+        // Never close this screen
+        NEVER
+    }
+}
@@ -0,0 +1,73 @@
+package com.heldheld.closeonmove.debug;
+
+import com.heldheld.closeonmove.input.InputTimestamps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Low-overhead counters and histograms describing what the mod costs at runtime.
+// Off by default; every recording site is guarded by a single check of enabled.
+// Recorded and read on the render thread only.
+public final class Metrics {
+    public static boolean enabled = false;
+    // Whether to add a section to the F3 debug screen while enabled
+    public static boolean showInDebugHud = false;
+
+    public static final Histogram TICK_TIME = new Histogram();
+    public static final Histogram FOCUS_PROBE_TIME = new Histogram();
+    public static final Histogram CLOSE_LATENCY = new Histogram();
+
+    public static long classifications;
+    public static long classificationCacheMisses;
+    public static long closes;
+
+    private Metrics() {
+    }
+
+    public static void recordClose(int triggerKey) {
+        closes++;
+        long pressedAt = InputTimestamps.lastPress(triggerKey);
+        if (pressedAt != 0L) {
+            CLOSE_LATENCY.record(System.nanoTime() - pressedAt);
+        }
+    }
+
+    public static void reset() {
+        TICK_TIME.reset();
+        FOCUS_PROBE_TIME.reset();
+        CLOSE_LATENCY.reset();
+        classifications = 0;
+        classificationCacheMisses = 0;
+        closes = 0;
+    }
+
+    public static List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        lines.add(describe("Tick", TICK_TIME));
+        lines.add(describe("Focus probe", FOCUS_PROBE_TIME));
+        lines.add(describe("Key to close", CLOSE_LATENCY));
+        lines.add(String.format(Locale.ROOT, "Screen classifications: %d (%d uncached), closes: %d",
+                classifications, classificationCacheMisses, closes));
+        if (StartupTimes.describe() != null) {
+            lines.add(StartupTimes.describe());
+        }
+        return lines;
+    }
+
+    private static String describe(String name, Histogram histogram) {
+        return String.format(Locale.ROOT, "%s: p50 %s, p99 %s, max %s (n=%d)", name,
+                formatNanos(histogram.percentile(50)), formatNanos(histogram.percentile(99)),
+                formatNanos(histogram.max()), histogram.count());
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000L) {
+            return nanos + " ns";
+        }
+        if (nanos < 1_000_000L) {
+            return String.format(Locale.ROOT, "%.1f µs", nanos / 1_000.0);
+        }
+        return String.format(Locale.ROOT, "%.2f ms", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,52 @@
+package com.heldheld.closeonmove.debug;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+import net.fabricmc.fabric.api.client.command.v2.ClientCommandManager;
+import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
+import net.minecraft.text.Text;
+
+// /closeonmove metrics [on|off|reset|overlay]
+public final class MetricsCommand {
+    private MetricsCommand() {
+    }
+
+    public static void register(CommandDispatcher<FabricClientCommandSource> dispatcher) {
+        dispatcher.register(ClientCommandManager.literal("closeonmove")
+                .then(ClientCommandManager.literal("metrics")
+                        .executes(MetricsCommand::show)
+                        .then(ClientCommandManager.literal("on").executes(context -> setEnabled(context, true)))
+                        .then(ClientCommandManager.literal("off").executes(context -> setEnabled(context, false)))
+                        .then(ClientCommandManager.literal("reset").executes(MetricsCommand::reset))
+                        .then(ClientCommandManager.literal("overlay").executes(MetricsCommand::toggleOverlay))));
+    }
+
+    private static int show(CommandContext<FabricClientCommandSource> context) {
+        if (!Metrics.enabled) {
+            context.getSource().sendFeedback(Text.literal("CloseOnMove metrics are off, use /closeonmove metrics on"));
+            return 0;
+        }
+        for (String line : Metrics.describe()) {
+            context.getSource().sendFeedback(Text.literal(line));
+        }
+        return 1;
+    }
+
+    private static int setEnabled(CommandContext<FabricClientCommandSource> context, boolean enabled) {
+        Metrics.enabled = enabled;
+        context.getSource().sendFeedback(Text.literal("CloseOnMove metrics " + (enabled ? "enabled" : "disabled")));
+        return 1;
+    }
+
+    private static int reset(CommandContext<FabricClientCommandSource> context) {
+        Metrics.reset();
+        context.getSource().sendFeedback(Text.literal("CloseOnMove metrics reset"));
+        return 1;
+    }
+
+    private static int toggleOverlay(CommandContext<FabricClientCommandSource> context) {
+        Metrics.showInDebugHud = !Metrics.showInDebugHud;
+        context.getSource().sendFeedback(Text.literal("CloseOnMove F3 section " + (Metrics.showInDebugHud ? "shown" : "hidden")));
+        return 1;
+    }
+}
@@ -0,0 +1,40 @@
+package com.heldheld.closeonmove.debug;
+
+import com.heldheld.closeonmove.CloseOnMove;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+// What the mod costs during game startup, reported once when the first client tick runs.
+// Always measured: a handful of nanoTime calls at startup cost nothing worth switching off.
+public final class StartupTimes {
+    public static long commonInitNanos;
+    public static long clientInitNanos;
+    // Spent on the config loading thread, in parallel with the game's own startup
+    public static volatile long configLoadNanos;
+    // Spent by the first tick waiting for the config, the only part of the load that can block the game
+    public static long configWaitNanos;
+
+    private static String summary;
+
+    private StartupTimes() {
+    }
+
+    public static void report() {
+        if (summary != null) {
+            return;
+        }
+        long blockingNanos = commonInitNanos + clientInitNanos + configWaitNanos;
+        long startupMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        double share = startupMillis > 0 ? blockingNanos / 1_000_000.0 / startupMillis * 100.0 : 0.0;
+        summary = String.format(Locale.ROOT,
+                "Startup: %.2f ms on the main thread (%.3f%% of %.1f s), config read off-thread in %.2f ms",
+                blockingNanos / 1_000_000.0, share, startupMillis / 1000.0, configLoadNanos / 1_000_000.0);
+        CloseOnMove.LOGGER.info(summary);
+    }
+
+    // Null until the first tick
+    public static String describe() {
+        return summary;
+    }
+}
@@ -0,0 +1,25 @@
+package com.heldheld.closeonmove.debug.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("closeonmove.ConfigIo")
+@Label("Config I/O")
+@Category("CloseOnMove")
+@Description("closeonmove.json was loaded, reloaded or saved")
+@StackTrace(false)
+public class ConfigIoEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Succeeded")
+    public boolean success;
+}
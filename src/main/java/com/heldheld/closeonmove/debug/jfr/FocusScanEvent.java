@@ -0,0 +1,23 @@
+package com.heldheld.closeonmove.debug.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("closeonmove.FocusScan")
+@Label("Focus Scan")
+@Category("CloseOnMove")
+@Description("Walk of a screen's widget tree looking for a focused text field")
+@StackTrace(false)
+public class FocusScanEvent extends jdk.jfr.Event {
+    @Label("Screen Class")
+    public Class<?> screenClass;
+
+    @Label("Nodes Visited")
+    public int nodesVisited;
+
+    @Label("Focused Text Field Found")
+    public boolean found;
+}
@@ -0,0 +1,23 @@
+package com.heldheld.closeonmove.debug.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("closeonmove.ScreenClassified")
+@Label("Screen Classified")
+@Category("CloseOnMove")
+@Description("A screen was looked up to decide whether movement keys may close it")
+@StackTrace(false)
+public class ScreenClassifiedEvent extends jdk.jfr.Event {
+    @Label("Screen Class")
+    public Class<?> screenClass;
+
+    @Label("Category")
+    public String category;
+
+    @Label("Closable")
+    public boolean closable;
+}
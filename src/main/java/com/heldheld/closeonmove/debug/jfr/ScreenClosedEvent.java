@@ -0,0 +1,30 @@
+package com.heldheld.closeonmove.debug.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("closeonmove.ScreenClosed")
+@Label("Screen Closed")
+@Category("CloseOnMove")
+@Description("A screen was closed by a configured key or mouse button")
+@StackTrace(false)
+public class ScreenClosedEvent extends jdk.jfr.Event {
+    @Label("Screen Class")
+    public Class<?> screenClass;
+
+    @Label("Trigger Key")
+    @Description("GLFW key code or mouse button that caused the close")
+    public int triggerKey;
+
+    @Label("Input Mode")
+    public String inputMode;
+
+    @Label("Latency")
+    @Description("Time from the GLFW press to the close, -1 if the press was not seen")
+    @Timespan(Timespan.NANOSECONDS)
+    public long latency;
+}
@@ -0,0 +1,41 @@
+package com.heldheld.closeonmove.input;
+
+import org.lwjgl.glfw.GLFW;
+
+// Codes for gamepad inputs, placed right after the last GLFW key so they share the key code space.
+// Buttons come first in GLFW order, followed by stick directions and the two analog triggers.
+public final class GamepadInput {
+    public static final int FIRST = GLFW.GLFW_KEY_LAST + 1;
+    public static final int BUTTON_COUNT = GLFW.GLFW_GAMEPAD_BUTTON_LAST + 1;
+
+    // Stick directions, in the order of their codes after the buttons
+    public static final int LEFT_STICK_LEFT = FIRST + BUTTON_COUNT;
+    public static final int LEFT_STICK_RIGHT = LEFT_STICK_LEFT + 1;
+    public static final int LEFT_STICK_UP = LEFT_STICK_LEFT + 2;
+    public static final int LEFT_STICK_DOWN = LEFT_STICK_LEFT + 3;
+    public static final int RIGHT_STICK_LEFT = LEFT_STICK_LEFT + 4;
+    public static final int RIGHT_STICK_RIGHT = LEFT_STICK_LEFT + 5;
+    public static final int RIGHT_STICK_UP = LEFT_STICK_LEFT + 6;
+    public static final int RIGHT_STICK_DOWN = LEFT_STICK_LEFT + 7;
+    public static final int LEFT_TRIGGER = LEFT_STICK_LEFT + 8;
+    public static final int RIGHT_TRIGGER = LEFT_STICK_LEFT + 9;
+
+    public static final int LAST = RIGHT_TRIGGER;
+    public static final int COUNT = LAST - FIRST + 1;
+
+    private GamepadInput() {
+    }
+
+    public static boolean isGamepadInput(int code) {
+        return code >= FIRST && code <= LAST;
+    }
+
+    public static int button(int glfwButton) {
+        return FIRST + glfwButton;
+    }
+
+    // Bit of the code in a mask of all gamepad inputs (COUNT fits in an int)
+    public static int bit(int code) {
+        return 1 << (code - FIRST);
+    }
+}
@@ -0,0 +1,100 @@
+package com.heldheld.closeonmove.input;
+
+import com.heldheld.closeonmove.config.Config;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.util.InputUtil;
+import org.lwjgl.glfw.GLFW;
+import org.lwjgl.glfw.GLFWGamepadState;
+
+// Reads the live state of the game window and the first connected gamepad
+public class GlfwInputSource implements InputSource {
+    // One off-heap buffer for the whole game; only the render thread reads input
+    private static final GLFWGamepadState GAMEPAD_STATE = GLFWGamepadState.malloc();
+    // Polls between joystick scans while no gamepad is found (one second of ticks)
+    private static final int GAMEPAD_RESCAN_INTERVAL = 20;
+
+    private final MinecraftClient client;
+    private final Config config;
+
+    private int gamepad = -1;
+    private int pollsUntilRescan;
+    // GamepadInput bits that were down at the last poll
+    private int gamepadDown;
+
+    public GlfwInputSource(MinecraftClient client, Config config) {
+        this.client = client;
+        this.config = config;
+    }
+
+    @Override
+    public boolean isKeyDown(int keyCode) {
+        return InputUtil.isKeyPressed(client.getWindow().getHandle(), keyCode);
+    }
+
+    @Override
+    public boolean isMouseButtonDown(int button) {
+        return GLFW.glfwGetMouseButton(client.getWindow().getHandle(), button) == GLFW.GLFW_PRESS;
+    }
+
+    // Reads all buttons and axes with a single glfwGetGamepadState call
+    @Override
+    public void pollGamepad() {
+        gamepadDown = 0;
+        if (!readGamepadState()) {
+            return;
+        }
+
+        int down = 0;
+        for (int button = 0; button < GamepadInput.BUTTON_COUNT; button++) {
+            if (GAMEPAD_STATE.buttons(button) == GLFW.GLFW_PRESS) {
+                down |= GamepadInput.bit(GamepadInput.button(button));
+            }
+        }
+
+        float threshold = config.getStickThreshold();
+        down |= axisBits(GLFW.GLFW_GAMEPAD_AXIS_LEFT_X, GamepadInput.LEFT_STICK_LEFT, GamepadInput.LEFT_STICK_RIGHT, threshold);
+        down |= axisBits(GLFW.GLFW_GAMEPAD_AXIS_LEFT_Y, GamepadInput.LEFT_STICK_UP, GamepadInput.LEFT_STICK_DOWN, threshold);
+        down |= axisBits(GLFW.GLFW_GAMEPAD_AXIS_RIGHT_X, GamepadInput.RIGHT_STICK_LEFT, GamepadInput.RIGHT_STICK_RIGHT, threshold);
+        down |= axisBits(GLFW.GLFW_GAMEPAD_AXIS_RIGHT_Y, GamepadInput.RIGHT_STICK_UP, GamepadInput.RIGHT_STICK_DOWN, threshold);
+        // Analog triggers rest at -1, so they are rescaled to 0..1 first
+        if ((GAMEPAD_STATE.axes(GLFW.GLFW_GAMEPAD_AXIS_LEFT_TRIGGER) + 1.0f) * 0.5f >= threshold) {
+            down |= GamepadInput.bit(GamepadInput.LEFT_TRIGGER);
+        }
+        if ((GAMEPAD_STATE.axes(GLFW.GLFW_GAMEPAD_AXIS_RIGHT_TRIGGER) + 1.0f) * 0.5f >= threshold) {
+            down |= GamepadInput.bit(GamepadInput.RIGHT_TRIGGER);
+        }
+        gamepadDown = down;
+    }
+
+    @Override
+    public boolean isGamepadInputDown(int code) {
+        return GamepadInput.isGamepadInput(code) && (gamepadDown & GamepadInput.bit(code)) != 0;
+    }
+
+    private static int axisBits(int axis, int negative, int positive, float threshold) {
+        float value = GAMEPAD_STATE.axes(axis);
+        if (value <= -threshold) {
+            return GamepadInput.bit(negative);
+        }
+        return value >= threshold ? GamepadInput.bit(positive) : 0;
+    }
+
+    // Keeps using the last found gamepad, and looks for another one at most once per rescan interval
+    private boolean readGamepadState() {
+        if (gamepad != -1 && GLFW.glfwGetGamepadState(gamepad, GAMEPAD_STATE)) {
+            return true;
+        }
+        gamepad = -1;
+        if (pollsUntilRescan-- > 0) {
+            return false;
+        }
+        pollsUntilRescan = GAMEPAD_RESCAN_INTERVAL;
+        for (int joystick = GLFW.GLFW_JOYSTICK_1; joystick <= GLFW.GLFW_JOYSTICK_LAST; joystick++) {
+            if (GLFW.glfwJoystickIsGamepad(joystick)) {
+                gamepad = joystick;
+                return GLFW.glfwGetGamepadState(joystick, GAMEPAD_STATE);
+            }
+        }
+        return false;
+    }
+}
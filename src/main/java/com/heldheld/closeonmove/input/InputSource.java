@@ -0,0 +1,18 @@
+package com.heldheld.closeonmove.input;
+
+// Where the polling path reads key, mouse button and gamepad states from.
+// The game uses GLFW; benchmarks and trace replay supply their own states.
+public interface InputSource {
+    boolean isKeyDown(int keyCode);
+
+    boolean isMouseButtonDown(int button);
+
+    // Reads the gamepad once per sample, before isGamepadInputDown is asked about any input
+    default void pollGamepad() {
+    }
+
+    // Whether a GamepadInput code was down at the last pollGamepad()
+    default boolean isGamepadInputDown(int code) {
+        return false;
+    }
+}
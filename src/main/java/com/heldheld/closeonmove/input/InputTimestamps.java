@@ -0,0 +1,31 @@
+package com.heldheld.closeonmove.input;
+
+import com.heldheld.closeonmove.debug.Metrics;
+import com.heldheld.closeonmove.debug.jfr.ScreenClosedEvent;
+
+// System.nanoTime() of the last GLFW press of every key and mouse button, filled in by the Keyboard and Mouse mixins.
+// Only written while metrics or the JFR close event are enabled, and only on the render thread.
+public final class InputTimestamps {
+    private static final long[] LAST_PRESS = new long[KeyStateTracker.SIZE];
+
+    // Never committed, only used to ask JFR whether close events are being recorded
+    private static final ScreenClosedEvent CLOSE_EVENT_PROBE = new ScreenClosedEvent();
+
+    private InputTimestamps() {
+    }
+
+    public static boolean shouldRecord() {
+        return Metrics.enabled || CLOSE_EVENT_PROBE.isEnabled();
+    }
+
+    public static void recordPress(int code, long nanos) {
+        if (KeyStateTracker.isTrackable(code)) {
+            LAST_PRESS[code] = nanos;
+        }
+    }
+
+    // 0 when no press of this code has been seen
+    public static long lastPress(int code) {
+        return KeyStateTracker.isTrackable(code) ? LAST_PRESS[code] : 0L;
+    }
+}
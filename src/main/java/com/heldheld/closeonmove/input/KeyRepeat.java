@@ -0,0 +1,21 @@
+package com.heldheld.closeonmove.input;
+
+import org.lwjgl.glfw.GLFW;
+
+// Whether the keyboard event being dispatched right now is a GLFW key repeat, set by KeyboardMixin.
+// Screens get repeats through the same keyPressed callback as presses, so the event path asks here.
+// Only touched on the render thread.
+public final class KeyRepeat {
+    private static boolean repeat;
+
+    private KeyRepeat() {
+    }
+
+    public static void onKey(int action) {
+        repeat = action == GLFW.GLFW_REPEAT;
+    }
+
+    public static boolean isRepeat() {
+        return repeat;
+    }
+}
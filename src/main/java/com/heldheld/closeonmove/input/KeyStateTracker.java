@@ -0,0 +1,92 @@
+package com.heldheld.closeonmove.input;
+
+// Fixed-size bitset of key states with rising and falling edge detection.
+// Keyboard codes (32-348), mouse buttons (0-7) and gamepad inputs (after the last key) share one index space,
+// since GLFW never assigns a key below 32.
+public class KeyStateTracker {
+    public static final int SIZE = GamepadInput.LAST + 1;
+    private static final int WORDS = (SIZE + 63) >>> 6;
+
+    private final long[] previous = new long[WORDS];
+    private final long[] current = new long[WORDS];
+    private final long[] risingEdges = new long[WORDS];
+    private final long[] fallingEdges = new long[WORDS];
+
+    // True while every word is zero, so repeated resets cost nothing
+    private boolean clean = true;
+
+    public static boolean isTrackable(int code) {
+        return code >= 0 && code < SIZE;
+    }
+
+    // Starts a new sample; every code not marked down before commit() counts as released
+    public void beginSample() {
+        for (int i = 0; i < WORDS; i++) {
+            current[i] = 0L;
+        }
+    }
+
+    public void markDown(int code) {
+        if (isTrackable(code)) {
+            current[code >>> 6] |= 1L << code;
+        }
+    }
+
+    // Computes the edges between the previous and the current sample; returns whether any key went down
+    public boolean commit() {
+        long any = 0L;
+        for (int i = 0; i < WORDS; i++) {
+            long edges = current[i] & ~previous[i];
+            risingEdges[i] = edges;
+            fallingEdges[i] = previous[i] & ~current[i];
+            previous[i] = current[i];
+            any |= edges | current[i];
+        }
+        clean = any == 0L;
+        return hasRisingEdge();
+    }
+
+    public boolean hasRisingEdge() {
+        for (int i = 0; i < WORDS; i++) {
+            if (risingEdges[i] != 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Lowest code with a rising edge in the last commit, or -1 if there is none
+    public int firstRisingEdge() {
+        for (int i = 0; i < WORDS; i++) {
+            if (risingEdges[i] != 0L) {
+                return (i << 6) + Long.numberOfTrailingZeros(risingEdges[i]);
+            }
+        }
+        return -1;
+    }
+
+    public boolean wasPressed(int code) {
+        return isTrackable(code) && (risingEdges[code >>> 6] & (1L << code)) != 0L;
+    }
+
+    public boolean wasReleased(int code) {
+        return isTrackable(code) && (fallingEdges[code >>> 6] & (1L << code)) != 0L;
+    }
+
+    public boolean isDown(int code) {
+        return isTrackable(code) && (previous[code >>> 6] & (1L << code)) != 0L;
+    }
+
+    public void reset() {
+        if (clean) {
+            return;
+        }
+        for (int i = 0; i < WORDS; i++) {
+            previous[i] = 0L;
+            current[i] = 0L;
+            risingEdges[i] = 0L;
+            fallingEdges[i] = 0L;
+        }
+        clean = true;
+    }
+}
@@ -0,0 +1,64 @@
+package com.heldheld.closeonmove.input;
+
+import com.heldheld.closeonmove.config.CloseKeySet;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.option.GameOptions;
+import net.minecraft.client.option.KeyBinding;
+
+// Hands a still-held close key to the matching movement binding right after the screen closed,
+// so the player starts moving in the same tick instead of waiting for the next key event.
+// Only movement bindings are touched, so a close key that also opens a screen doesn't reopen it.
+// Bindings that are already pressed and toggled sneak or sprint are left to the game.
+public class MovementKeyForwarder {
+    private final MinecraftClient client;
+    private KeyBinding[] movementKeys;
+
+    public MovementKeyForwarder(MinecraftClient client) {
+        this.client = client;
+    }
+
+    public void forward(int code, InputSource input) {
+        if (GamepadInput.isGamepadInput(code) || client.options == null) {
+            return;
+        }
+        boolean mouse = CloseKeySet.isMouseButton(code);
+        // Closed on release (e.g. a hold trigger), nothing left to forward
+        if (mouse ? !input.isMouseButtonDown(code) : !input.isKeyDown(code)) {
+            return;
+        }
+
+        for (KeyBinding binding : getMovementKeys()) {
+            // Already pressed means the game picked the key up itself; pressing again would only matter to toggles
+            if (binding.isPressed() || isToggleMode(binding)) {
+                continue;
+            }
+            if (mouse ? binding.matchesMouse(code) : binding.matchesKey(code, 0)) {
+                binding.setPressed(true);
+            }
+        }
+    }
+
+    // Sneak and sprint are sticky bindings when toggling is on, and setPressed(true) flips the toggle
+    private boolean isToggleMode(KeyBinding binding) {
+        GameOptions options = client.options;
+        return (binding == options.sneakKey && options.getSneakToggled().getValue())
+                || (binding == options.sprintKey && options.getSprintToggled().getValue());
+    }
+
+    // The binding objects live as long as the options, rebinding only changes their keys
+    private KeyBinding[] getMovementKeys() {
+        if (movementKeys == null) {
+            GameOptions options = client.options;
+            movementKeys = new KeyBinding[]{
+                    options.forwardKey,
+                    options.leftKey,
+                    options.backKey,
+                    options.rightKey,
+                    options.jumpKey,
+                    options.sneakKey,
+                    options.sprintKey
+            };
+        }
+        return movementKeys;
+    }
+}
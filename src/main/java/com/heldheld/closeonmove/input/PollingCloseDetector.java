@@ -0,0 +1,89 @@
+package com.heldheld.closeonmove.input;
+
+import com.heldheld.closeonmove.config.CloseKeySet;
+import com.heldheld.closeonmove.config.CloseTriggers;
+
+// The polling close decision: samples every configured key once per tick and reports newly pressed ones.
+// Independent of the game, so benchmarks and trace replay run exactly the code the client runs.
+public class PollingCloseDetector {
+    private final KeyStateTracker keyStates = new KeyStateTracker();
+    private final TriggerMachine triggerMachine = new TriggerMachine();
+
+    // Returns the key that went down since the previous sample, or -1 if none did
+    public int sample(CloseKeySet closeKeys, InputSource input) {
+        return sample(closeKeys, CloseTriggers.NONE, input, 0L);
+    }
+
+    // Returns the key whose trigger fired in this sample, or -1 if none did.
+    // Without hold, chord or double-tap triggers this is the first key that went down.
+    public int sample(CloseKeySet closeKeys, CloseTriggers triggers, InputSource input, long now) {
+        return sample(closeKeys, triggers, input, now, true);
+    }
+
+    // Samples only the gamepad inputs. Gamepads have no GLFW callbacks, so the event path polls them every tick.
+    public int sampleGamepad(CloseKeySet closeKeys, CloseTriggers triggers, InputSource input, long now) {
+        return sample(closeKeys, triggers, input, now, false);
+    }
+
+    private int sample(CloseKeySet closeKeys, CloseTriggers triggers, InputSource input, long now, boolean keysAndMouse) {
+        keyStates.beginSample();
+        if (keysAndMouse) {
+            for (int i = 0; i < closeKeys.keyboardCount(); i++) {
+                int keyCode = closeKeys.keyboardCode(i);
+                if (input.isKeyDown(keyCode)) {
+                    keyStates.markDown(keyCode);
+                }
+            }
+            for (int i = 0; i < closeKeys.mouseCount(); i++) {
+                int button = closeKeys.mouseButton(i);
+                if (input.isMouseButtonDown(button)) {
+                    keyStates.markDown(button);
+                }
+            }
+        }
+        if (closeKeys.gamepadCount() > 0) {
+            input.pollGamepad();
+            for (int i = 0; i < closeKeys.gamepadCount(); i++) {
+                int code = closeKeys.gamepadInput(i);
+                if (input.isGamepadInputDown(code)) {
+                    keyStates.markDown(code);
+                }
+            }
+        }
+        boolean pressed = keyStates.commit();
+        if (triggers.isEmpty()) {
+            return pressed ? keyStates.firstRisingEdge() : -1;
+        }
+
+        // Feed every edge to the state machine, even after a trigger fired, so no key state goes stale
+        int fired = -1;
+        if (keysAndMouse) {
+            for (int i = 0; i < closeKeys.keyboardCount(); i++) {
+                fired = feed(closeKeys.keyboardCode(i), triggers, input, now, fired);
+            }
+            for (int i = 0; i < closeKeys.mouseCount(); i++) {
+                fired = feed(closeKeys.mouseButton(i), triggers, input, now, fired);
+            }
+        }
+        for (int i = 0; i < closeKeys.gamepadCount(); i++) {
+            fired = feed(closeKeys.gamepadInput(i), triggers, input, now, fired);
+        }
+        return fired != -1 ? fired : triggerMachine.advance(now, triggers);
+    }
+
+    private int feed(int code, CloseTriggers triggers, InputSource input, long now, int fired) {
+        int result = -1;
+        if (keyStates.wasPressed(code)) {
+            result = triggerMachine.onPress(code, now, triggers, input);
+        } else if (keyStates.wasReleased(code)) {
+            result = triggerMachine.onRelease(code, now, triggers);
+        }
+        return fired != -1 ? fired : result;
+    }
+
+    // Forget all key and trigger states, a no-op when nothing is held
+    public void reset() {
+        keyStates.reset();
+        triggerMachine.reset();
+    }
+}
@@ -0,0 +1,143 @@
+package com.heldheld.closeonmove.input;
+
+import com.heldheld.closeonmove.config.CloseKeySet;
+import com.heldheld.closeonmove.config.CloseTriggers;
+
+// Table-driven state machine deciding when a close key fires its trigger. Every key is IDLE or ARMED,
+// and ACTIONS maps (trigger type, state, event) to what happens. Times are System.nanoTime() values,
+// the same clock InputTimestamps records presses with. Nothing is allocated per event, and the tick
+// only visits keys that are currently armed.
+public class TriggerMachine {
+    private static final int PRESS = 0;
+    private static final int RELEASE = 1;
+    // The key has been armed for at least the trigger's duration
+    private static final int TIMEOUT = 2;
+
+    private static final byte IDLE = 0;
+    private static final byte ARMED = 1;
+
+    private static final byte NOTHING = 0;
+    private static final byte FIRE = 1;
+    private static final byte FIRE_IF_MODIFIER_DOWN = 2;
+    private static final byte ARM = 3;
+    private static final byte DISARM = 4;
+
+    // ACTIONS[type][state][event], with types in CloseTrigger.Type order
+    private static final byte[][][] ACTIONS = {
+            // TAP: fire on press
+            {{FIRE, NOTHING, NOTHING}, {NOTHING, NOTHING, NOTHING}},
+            // CHORD: fire on press while the modifier is held
+            {{FIRE_IF_MODIFIER_DOWN, NOTHING, NOTHING}, {NOTHING, NOTHING, NOTHING}},
+            // HOLD: arm on press, fire if still held when the time is up
+            {{ARM, NOTHING, NOTHING}, {NOTHING, DISARM, FIRE}},
+            // DOUBLE_TAP: arm on press, fire on a second press before the time is up
+            {{ARM, NOTHING, NOTHING}, {FIRE, NOTHING, DISARM}}
+    };
+
+    private final byte[] states = new byte[KeyStateTracker.SIZE];
+    private final long[] armedAt = new long[KeyStateTracker.SIZE];
+    private final int[] armed = new int[KeyStateTracker.SIZE];
+    private int armedCount;
+
+    // Triggers the current states belong to; a new table starts over from IDLE
+    private CloseTriggers triggers = CloseTriggers.NONE;
+
+    // A new press, never a key repeat; returns the key if its trigger fired, otherwise -1
+    public int onPress(int key, long now, CloseTriggers triggers, InputSource input) {
+        use(triggers);
+        return handle(key, PRESS, now, input);
+    }
+
+    // Returns the key if its trigger fired, otherwise -1
+    public int onRelease(int key, long now, CloseTriggers triggers) {
+        use(triggers);
+        return handle(key, RELEASE, now, null);
+    }
+
+    // Fires hold triggers whose time is up and expires double-tap windows; returns the first key that fired or -1
+    public int advance(long now, CloseTriggers triggers) {
+        use(triggers);
+        for (int i = armedCount - 1; i >= 0; i--) {
+            int key = armed[i];
+            if (now - armedAt[key] >= triggers.durationNanos(key)) {
+                int fired = apply(key, TIMEOUT, now, null);
+                if (fired != -1) {
+                    return fired;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public boolean hasArmed() {
+        return armedCount != 0;
+    }
+
+    public void reset() {
+        for (int i = 0; i < armedCount; i++) {
+            states[armed[i]] = IDLE;
+        }
+        armedCount = 0;
+    }
+
+    private void use(CloseTriggers triggers) {
+        if (this.triggers != triggers) {
+            reset();
+            this.triggers = triggers;
+        }
+    }
+
+    private int handle(int key, int event, long now, InputSource input) {
+        if (!KeyStateTracker.isTrackable(key)) {
+            return event == PRESS ? key : -1;
+        }
+        // A key whose time ran out since the last tick times out before the new event is applied
+        if (states[key] == ARMED && now - armedAt[key] >= triggers.durationNanos(key)) {
+            int fired = apply(key, TIMEOUT, now, input);
+            if (fired != -1) {
+                return fired;
+            }
+        }
+        return apply(key, event, now, input);
+    }
+
+    private int apply(int key, int event, long now, InputSource input) {
+        switch (ACTIONS[triggers.type(key)][states[key]][event]) {
+            case FIRE:
+                disarm(key);
+                return key;
+            case FIRE_IF_MODIFIER_DOWN:
+                return isDown(input, triggers.modifier(key)) ? key : -1;
+            case ARM:
+                states[key] = ARMED;
+                armedAt[key] = now;
+                armed[armedCount++] = key;
+                return -1;
+            case DISARM:
+                disarm(key);
+                return -1;
+            default:
+                return -1;
+        }
+    }
+
+    private void disarm(int key) {
+        if (states[key] != ARMED) {
+            return;
+        }
+        states[key] = IDLE;
+        for (int i = 0; i < armedCount; i++) {
+            if (armed[i] == key) {
+                armed[i] = armed[--armedCount];
+                return;
+            }
+        }
+    }
+
+    private static boolean isDown(InputSource input, int code) {
+        if (GamepadInput.isGamepadInput(code)) {
+            return input.isGamepadInputDown(code);
+        }
+        return CloseKeySet.isMouseButton(code) ? input.isMouseButtonDown(code) : input.isKeyDown(code);
+    }
+}
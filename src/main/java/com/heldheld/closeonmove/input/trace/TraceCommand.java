@@ -0,0 +1,45 @@
+package com.heldheld.closeonmove.input.trace;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+import net.fabricmc.fabric.api.client.command.v2.ClientCommandManager;
+import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.text.Text;
+
+import java.nio.file.Path;
+
+// /closeonmove trace [start|stop]
+public final class TraceCommand {
+    private TraceCommand() {
+    }
+
+    public static void register(CommandDispatcher<FabricClientCommandSource> dispatcher) {
+        dispatcher.register(ClientCommandManager.literal("closeonmove")
+                .then(ClientCommandManager.literal("trace")
+                        .then(ClientCommandManager.literal("start").executes(TraceCommand::start))
+                        .then(ClientCommandManager.literal("stop").executes(TraceCommand::stop))));
+    }
+
+    private static int start(CommandContext<FabricClientCommandSource> context) {
+        if (TraceRecorder.recording) {
+            context.getSource().sendError(Text.literal("Already recording an input trace"));
+            return 0;
+        }
+        TraceRecorder.start();
+        context.getSource().sendFeedback(Text.literal("Recording input trace, stop with /closeonmove trace stop"));
+        return 1;
+    }
+
+    private static int stop(CommandContext<FabricClientCommandSource> context) {
+        if (!TraceRecorder.recording) {
+            context.getSource().sendError(Text.literal("No input trace is being recorded"));
+            return 0;
+        }
+        long records = TraceRecorder.recordCount();
+        Path directory = FabricLoader.getInstance().getGameDir().resolve("closeonmove-traces");
+        Path file = TraceRecorder.stop(directory);
+        context.getSource().sendFeedback(Text.literal("Saved " + records + " records to " + file));
+        return 1;
+    }
+}
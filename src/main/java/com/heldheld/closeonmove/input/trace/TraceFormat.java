@@ -0,0 +1,31 @@
+package com.heldheld.closeonmove.input.trace;
+
+// Binary layout of input traces.
+//
+// Header: int MAGIC, short VERSION, long wall clock start (epoch millis).
+// Then records of: byte type, varlong nanoseconds since the previous record, and a payload:
+//   KEY, MOUSE: varint code, byte GLFW action, byte flags
+//   TICK:       byte flags
+//   SCREEN:     byte flags, UTF class name ("" when no screen is open), varint key count, varint codes
+//               (the close keys of the screen's plan that the server policy allows)
+//   CLOSE:      varint trigger code
+final class TraceFormat {
+    static final int MAGIC = 0x434F4D54; // "COMT"
+    static final short VERSION = 2;
+
+    static final byte KEY = 0;
+    static final byte MOUSE = 1;
+    static final byte TICK = 2;
+    static final byte SCREEN = 3;
+    static final byte CLOSE = 4;
+
+    // Flags of KEY, MOUSE and TICK records, set when the close decision would see the player typing
+    static final int FLAG_TYPING = 1;
+
+    // Flags of SCREEN records; closable is the plan's, so screen rules and the server policy are applied
+    static final int FLAG_CLOSABLE = 1;
+    static final int FLAG_IN_WORLD = 2;
+
+    private TraceFormat() {
+    }
+}
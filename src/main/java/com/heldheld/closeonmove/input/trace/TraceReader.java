@@ -0,0 +1,95 @@
+package com.heldheld.closeonmove.input.trace;
+
+import com.heldheld.closeonmove.config.CloseKeySet;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Streams the records of a trace written by TraceRecorder to a visitor, with absolute timestamps
+public final class TraceReader {
+    public interface Visitor {
+        void onInput(long nanos, boolean mouse, int code, int action, boolean typing);
+
+        void onTick(long nanos, boolean typing);
+
+        // className is empty when no screen is open; keys are the screen's allowed close keys
+        void onScreen(long nanos, String className, boolean closable, boolean inWorld, CloseKeySet keys);
+
+        void onClose(long nanos, int triggerKey);
+    }
+
+    private TraceReader() {
+    }
+
+    public static void read(Path file, Visitor visitor) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != TraceFormat.MAGIC) {
+                throw new IOException("Not a CloseOnMove input trace: " + file);
+            }
+            short version = in.readShort();
+            if (version != TraceFormat.VERSION) {
+                throw new IOException("Unsupported trace version " + version);
+            }
+            in.readLong(); // Wall clock start, informational only
+
+            long nanos = 0;
+            while (true) {
+                int type = in.read();
+                if (type < 0) {
+                    return;
+                }
+                nanos += readVarLong(in);
+
+                switch (type) {
+                    case TraceFormat.KEY, TraceFormat.MOUSE -> {
+                        int code = (int) readVarLong(in);
+                        int action = in.readByte();
+                        boolean typing = (in.readByte() & TraceFormat.FLAG_TYPING) != 0;
+                        visitor.onInput(nanos, type == TraceFormat.MOUSE, code, action, typing);
+                    }
+                    case TraceFormat.TICK -> visitor.onTick(nanos, (in.readByte() & TraceFormat.FLAG_TYPING) != 0);
+                    case TraceFormat.SCREEN -> {
+                        int flags = in.readByte();
+                        String className = in.readUTF();
+                        visitor.onScreen(nanos, className,
+                                (flags & TraceFormat.FLAG_CLOSABLE) != 0, (flags & TraceFormat.FLAG_IN_WORLD) != 0, readKeys(in));
+                    }
+                    case TraceFormat.CLOSE -> visitor.onClose(nanos, (int) readVarLong(in));
+                    default -> throw new IOException("Unknown record type " + type);
+                }
+            }
+        }
+    }
+
+    private static CloseKeySet readKeys(InputStream in) throws IOException {
+        int count = (int) readVarLong(in);
+        List<Integer> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            keys.add((int) readVarLong(in));
+        }
+        return CloseKeySet.of(keys);
+    }
+
+    static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.heldheld.closeonmove.input.trace;
+
+import com.heldheld.closeonmove.screen.ClosePlan;
+import com.heldheld.closeonmove.screen.FocusedTextInput;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+// Records key, mouse, tick and screen events into an in-memory binary trace (see TraceFormat).
+// Everything is called on the render thread; the file is written off-thread when recording stops.
+public final class TraceRecorder {
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH.mm.ss");
+
+    // Checked by every recording site before doing anything else
+    public static boolean recording = false;
+
+    // Whether the close decision would see the player typing, recorded with every input and tick.
+    // The client points it at its CloseDecision; the tracker alone misses fields only found by scanning.
+    public static BooleanSupplier typing = FocusedTextInput::isTyping;
+
+    private static ByteArrayOutputStream buffer;
+    private static DataOutputStream out;
+    private static long lastNanos;
+    private static long records;
+
+    private TraceRecorder() {
+    }
+
+    public static void start() {
+        buffer = new ByteArrayOutputStream(64 * 1024);
+        out = new DataOutputStream(buffer);
+        lastNanos = System.nanoTime();
+        records = 0;
+        try {
+            out.writeInt(TraceFormat.MAGIC);
+            out.writeShort(TraceFormat.VERSION);
+            out.writeLong(System.currentTimeMillis());
+        } catch (IOException e) {
+            // Cannot happen with an in-memory stream
+        }
+        recording = true;
+    }
+
+    // Stops recording and writes the trace into the given directory in the background; returns the file path
+    public static Path stop(Path directory) {
+        recording = false;
+        byte[] data = buffer.toByteArray();
+        buffer = null;
+        out = null;
+
+        Path file = directory.resolve("trace-" + LocalDateTime.now().format(FILE_NAME_FORMAT) + ".bin");
+        Thread.ofVirtual().name("closeonmove-trace-writer").start(() -> {
+            try {
+                Files.createDirectories(directory);
+                Files.write(file, data);
+            } catch (IOException e) {
+                System.err.println("Failed to write input trace: " + e.getMessage());
+            }
+        });
+        return file;
+    }
+
+    public static long recordCount() {
+        return records;
+    }
+
+    public static void key(int key, int action) {
+        input(TraceFormat.KEY, key, action, typing.getAsBoolean());
+    }
+
+    public static void mouse(int button, int action) {
+        input(TraceFormat.MOUSE, button, action, typing.getAsBoolean());
+    }
+
+    public static void tick() {
+        try {
+            begin(TraceFormat.TICK);
+            out.writeByte(typing.getAsBoolean() ? TraceFormat.FLAG_TYPING : 0);
+        } catch (IOException e) {
+            // Cannot happen with an in-memory stream
+        }
+    }
+
+    // className and plan are null when no screen is open
+    public static void screen(String className, ClosePlan plan, boolean inWorld) {
+        boolean closable = plan != null && plan.isClosable();
+        List<Integer> keys = closable ? plan.getKeys().asList() : List.of();
+        int allowedKeys = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            if (!plan.getPolicy().blocksKey(keys.get(i))) {
+                allowedKeys++;
+            }
+        }
+        try {
+            begin(TraceFormat.SCREEN);
+            out.writeByte((closable ? TraceFormat.FLAG_CLOSABLE : 0) | (inWorld ? TraceFormat.FLAG_IN_WORLD : 0));
+            out.writeUTF(className == null ? "" : className);
+            writeVarLong(out, allowedKeys);
+            for (int i = 0; i < keys.size(); i++) {
+                if (!plan.getPolicy().blocksKey(keys.get(i))) {
+                    writeVarLong(out, keys.get(i) & 0xFFFFFFFFL);
+                }
+            }
+        } catch (IOException e) {
+            // Cannot happen with an in-memory stream
+        }
+    }
+
+    public static void close(int triggerKey) {
+        try {
+            begin(TraceFormat.CLOSE);
+            writeVarLong(out, triggerKey & 0xFFFFFFFFL);
+        } catch (IOException e) {
+            // Cannot happen with an in-memory stream
+        }
+    }
+
+    private static void input(byte type, int code, int action, boolean typing) {
+        try {
+            begin(type);
+            writeVarLong(out, code & 0xFFFFFFFFL);
+            out.writeByte(action);
+            out.writeByte(typing ? TraceFormat.FLAG_TYPING : 0);
+        } catch (IOException e) {
+            // Cannot happen with an in-memory stream
+        }
+    }
+
+    private static void begin(byte type) throws IOException {
+        long now = System.nanoTime();
+        out.writeByte(type);
+        writeVarLong(out, now - lastNanos);
+        lastNanos = now;
+        records++;
+    }
+
+    // Unsigned LEB128, so the small deltas and codes of a trace mostly take one or two bytes
+    static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
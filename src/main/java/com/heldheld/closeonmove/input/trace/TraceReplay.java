@@ -0,0 +1,346 @@
+package com.heldheld.closeonmove.input.trace;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.heldheld.closeonmove.CloseDecision;
+import com.heldheld.closeonmove.config.CloseKeySet;
+import com.heldheld.closeonmove.config.CloseRules;
+import com.heldheld.closeonmove.config.Config;
+import com.heldheld.closeonmove.debug.Histogram;
+import com.heldheld.closeonmove.input.InputSource;
+import com.heldheld.closeonmove.input.KeyStateTracker;
+import com.heldheld.closeonmove.network.ClientClosePolicy;
+import com.heldheld.closeonmove.screen.ClosePlan;
+import net.minecraft.client.gui.Element;
+import net.minecraft.client.gui.ParentElement;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+// Headless replay of a recorded trace through CloseDecision, once in each input mode, so triggers, screen rules
+// and the server policy decide exactly as they do in game. The recorded screen records carry the plan's closable
+// flag and keys, and the recorded typing flag is the decision's own, scan included.
+// Reports per mode how many closes happen, how many of them were caused by a key already held when
+// the screen opened (spurious), how many taps were missed, how many ticks a close took and what each
+// decision costs, along with the recorded session's own closes while typing and its slowest close.
+// This is a diagnostic for recorded sessions; the client game tests are what gate CI.
+//
+// Usage: TraceReplay [--config closeonmove.json] <trace.bin> [key names...]
+// e.g. ./gradlew replayTrace --args="trace.bin W A S D Space"
+// Key names replace the close keys of the config and of the recorded screens.
+public class TraceReplay implements TraceReader.Visitor {
+    private static final int PRESS = 1;
+    private static final int RELEASE = 0;
+
+    private final boolean keysGiven;
+
+    private final boolean[] down = new boolean[KeyStateTracker.SIZE];
+    private final long[] lastPress = new long[KeyStateTracker.SIZE];
+    private final long[] pressTick = new long[KeyStateTracker.SIZE];
+    private final boolean[] tapPending = new boolean[KeyStateTracker.SIZE];
+
+    private final InputSource replayedInput = new InputSource() {
+        @Override
+        public boolean isKeyDown(int keyCode) {
+            return down[keyCode];
+        }
+
+        @Override
+        public boolean isMouseButtonDown(int button) {
+            return down[button];
+        }
+    };
+
+    private final Mode eventMode;
+    private final Mode pollingMode;
+
+    private final long[] lastPressTick = new long[KeyStateTracker.SIZE];
+
+    // Recorded state, what the replayed plans and hosts answer with
+    private long nanos;
+    private long ticks;
+    private long screenOpenedAt;
+    private boolean typing;
+    private boolean inWorld;
+    private boolean screenClosable;
+    private CloseKeySet screenKeys = CloseKeySet.EMPTY;
+
+    private int recordedCloses;
+    private int recordedTypingCloses;
+    private long recordedMaxTicksToClose;
+
+    // keysGiven: the configs' close keys were given on the command line and replace the recorded ones
+    public TraceReplay(Config eventConfig, Config pollingConfig, boolean keysGiven) {
+        this.keysGiven = keysGiven;
+        this.eventMode = new Mode("Event", eventConfig);
+        this.pollingMode = new Mode("Polling", pollingConfig);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path configFile = null;
+        int argIndex = 0;
+        while (argIndex < args.length && args[argIndex].startsWith("--")) {
+            switch (args[argIndex]) {
+                case "--config" -> configFile = Path.of(args[++argIndex]);
+                default -> usage();
+            }
+            argIndex++;
+        }
+        if (argIndex >= args.length) {
+            usage();
+        }
+        Path trace = Path.of(args[argIndex++]);
+
+        JsonObject json = configFile != null
+                ? JsonParser.parseString(Files.readString(configFile)).getAsJsonObject()
+                : new JsonObject();
+        boolean keysGiven = argIndex < args.length;
+        if (keysGiven) {
+            Config defaults = new Config();
+            JsonArray names = new JsonArray();
+            for (int i = argIndex; i < args.length; i++) {
+                if (defaults.getKeyCode(args[i]) == null) {
+                    System.err.println("Unknown key name: " + args[i]);
+                    System.exit(1);
+                }
+                names.add(args[i]);
+            }
+            json.add("CloseKeys", names);
+        }
+
+        TraceReplay replay = new TraceReplay(withInputMode(json, Config.InputMode.EVENT),
+                withInputMode(json, Config.InputMode.POLLING), keysGiven);
+        TraceReader.read(trace, replay);
+        replay.printReport();
+    }
+
+    private static Config withInputMode(JsonObject json, Config.InputMode mode) {
+        JsonObject copy = json.deepCopy();
+        copy.addProperty("InputMode", mode.name());
+        return Config.fromJson(copy.toString());
+    }
+
+    private static void usage() {
+        System.err.println("Usage: TraceReplay [--config closeonmove.json] <trace.bin> [key names...]");
+        System.exit(1);
+    }
+
+    @Override
+    public void onInput(long nanos, boolean mouse, int code, int action, boolean typing) {
+        this.nanos = nanos;
+        this.typing = typing;
+        if (!KeyStateTracker.isTrackable(code)) {
+            return;
+        }
+
+        if (action == PRESS) {
+            down[code] = true;
+            lastPress[code] = nanos;
+            lastPressTick[code] = ticks;
+            if (pollingMode.screen != null && !typing && pollingMode.closesWith(code)) {
+                tapPending[code] = true;
+                pressTick[code] = ticks;
+            }
+        } else if (action == RELEASE) {
+            down[code] = false;
+            // Pressed and released without a tick in between: polling never saw it
+            if (tapPending[code] && pressTick[code] == ticks) {
+                pollingMode.missedTaps++;
+            }
+            tapPending[code] = false;
+        }
+
+        // The screen listeners see presses and releases; key repeats are passed over, see KeyRepeat
+        if (action == PRESS || action == RELEASE) {
+            eventMode.onInput(code, action == PRESS);
+        }
+    }
+
+    @Override
+    public void onTick(long nanos, boolean typing) {
+        this.nanos = nanos;
+        this.typing = typing;
+        ticks++;
+        eventMode.tick();
+        pollingMode.tick();
+    }
+
+    @Override
+    public void onScreen(long nanos, String className, boolean closable, boolean inWorld, CloseKeySet keys) {
+        this.nanos = nanos;
+        this.inWorld = inWorld;
+        screenClosable = closable;
+        screenKeys = keys;
+        screenOpenedAt = nanos;
+        eventMode.open(className);
+        pollingMode.open(className);
+    }
+
+    @Override
+    public void onClose(long nanos, int triggerKey) {
+        recordedCloses++;
+        if (typing) {
+            recordedTypingCloses++;
+        }
+        if (KeyStateTracker.isTrackable(triggerKey) && lastPress[triggerKey] != 0L) {
+            recordedMaxTicksToClose = Math.max(recordedMaxTicksToClose, ticks - lastPressTick[triggerKey]);
+        }
+    }
+
+    private void printReport() {
+        System.out.printf(Locale.ROOT, "Replayed %d ticks, %d closes in the recorded session (%d while typing, slowest %d ticks)%n",
+                ticks, recordedCloses, recordedTypingCloses, recordedMaxTicksToClose);
+        eventMode.print();
+        pollingMode.print();
+    }
+
+    // One input mode: a CloseDecision and the recorded game it runs against
+    private class Mode implements CloseDecision.Host {
+        private final String name;
+        private final Config config;
+        private final CloseDecision decision;
+        private final Histogram latency = new Histogram();
+        private final Histogram latencyTicks = new Histogram();
+        private final Histogram decisionCost = new Histogram();
+        // Each mode closes its own copy of the screen; it reopens with the next screen record
+        private RecordedScreen screen;
+        private int closes;
+        private int spuriousCloses;
+        private int missedTaps;
+
+        Mode(String name, Config config) {
+            this.name = name;
+            this.config = config;
+            this.decision = new CloseDecision(config, replayedInput, this);
+        }
+
+        void open(String className) {
+            if (screen != null) {
+                decision.onScreenRemoved(screen);
+            }
+            screen = className.isEmpty() ? null : new RecordedScreen(className);
+            if (screen != null) {
+                decision.onScreenInit(screen);
+            }
+        }
+
+        // Only the event mode gets input callbacks, and only while its screen is open
+        void onInput(int code, boolean pressed) {
+            if (screen == null) {
+                return;
+            }
+            long start = System.nanoTime();
+            decision.onInput(screen, code, pressed, nanos);
+            decisionCost.record(System.nanoTime() - start);
+        }
+
+        void tick() {
+            if (config.getInputMode() != Config.InputMode.POLLING) {
+                decision.tick(nanos);
+                return;
+            }
+            long start = System.nanoTime();
+            decision.tick(nanos);
+            decisionCost.record(System.nanoTime() - start);
+        }
+
+        boolean closesWith(int code) {
+            return screenClosable && keys(config.getCloseRules()).contains(code);
+        }
+
+        private CloseKeySet keys(CloseRules rules) {
+            return keysGiven ? rules.getDefaultKeys() : screenKeys;
+        }
+
+        @Override
+        public ParentElement currentScreen() {
+            return screen;
+        }
+
+        @Override
+        public boolean isInWorld() {
+            return inWorld;
+        }
+
+        @Override
+        public boolean isTyping() {
+            return typing;
+        }
+
+        // The recorded typing flag already includes the decision's scan, so the focus tracker probe is enough
+        @Override
+        public ClosePlan buildPlan(ParentElement screen, CloseRules rules, ClientClosePolicy policy) {
+            return ClosePlan.of(screenClosable, ClosePlan.FocusProbe.FOCUS_TRACKER, keys(rules), rules, policy);
+        }
+
+        @Override
+        public void close(ParentElement closed, int code) {
+            closes++;
+            if (lastPress[code] < screenOpenedAt) {
+                spuriousCloses++;
+            }
+            latency.record(nanos - lastPress[code]);
+            latencyTicks.record(ticks - lastPressTick[code]);
+            // Like the game, which removes the screen while closing it
+            decision.onScreenRemoved(closed);
+            screen = null;
+        }
+
+        void print() {
+            System.out.printf(Locale.ROOT, "%s: %d closes, %d spurious (key held when the screen opened), %d missed taps%n",
+                    name, closes, spuriousCloses, missedTaps);
+            System.out.printf(Locale.ROOT, "  key to close p50 %.2f ms, p99 %.2f ms, max %d ticks%n",
+                    latency.percentile(50) / 1e6, latency.percentile(99) / 1e6, latencyTicks.max());
+            System.out.printf(Locale.ROOT, "  decision cost p50 %d ns, p99 %d ns (n=%d)%n",
+                    decisionCost.percentile(50), decisionCost.percentile(99), decisionCost.count());
+        }
+    }
+
+    // Stands in for a recorded screen; the decision only needs its identity
+    private static class RecordedScreen implements ParentElement {
+        private final String className;
+        private boolean dragging;
+        @Nullable
+        private Element focused;
+
+        RecordedScreen(String className) {
+            this.className = className;
+        }
+
+        @Override
+        public List<? extends Element> children() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isDragging() {
+            return dragging;
+        }
+
+        @Override
+        public void setDragging(boolean dragging) {
+            this.dragging = dragging;
+        }
+
+        @Nullable
+        @Override
+        public Element getFocused() {
+            return focused;
+        }
+
+        @Override
+        public void setFocused(@Nullable Element focused) {
+            this.focused = focused;
+        }
+
+        @Override
+        public String toString() {
+            return className;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.heldheld.closeonmove.mixin;
+
+import com.heldheld.closeonmove.screen.FocusedTextInput;
+import net.minecraft.client.gui.widget.ClickableWidget;
+import net.minecraft.client.gui.widget.EditBoxWidget;
+import net.minecraft.client.gui.widget.TextFieldWidget;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ClickableWidget.class)
+public abstract class ClickableWidgetMixin {
+	// TextFieldWidget.setFocused calls super once its focus lock allows the change, so this sees every real change
+	@Inject(at = @At("TAIL"), method = "setFocused")
+	private void closeonmove$trackTextInputFocus(boolean focused, CallbackInfo info) {
+		Object self = this;
+		if (self instanceof TextFieldWidget || self instanceof EditBoxWidget) {
+			FocusedTextInput.onFocusChanged((ClickableWidget) self, focused);
+		}
+	}
+}
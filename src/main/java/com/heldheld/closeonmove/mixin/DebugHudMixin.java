@@ -0,0 +1,24 @@
+package com.heldheld.closeonmove.mixin;
+
+import com.heldheld.closeonmove.debug.Metrics;
+import net.minecraft.client.gui.hud.DebugHud;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.util.List;
+
+@Mixin(DebugHud.class)
+public class DebugHudMixin {
+	// Optional CloseOnMove section at the bottom of the right F3 column
+	@Inject(at = @At("RETURN"), method = "getRightText")
+	private void closeonmove$addMetrics(CallbackInfoReturnable<List<String>> info) {
+		if (Metrics.enabled && Metrics.showInDebugHud) {
+			List<String> lines = info.getReturnValue();
+			lines.add("");
+			lines.add("[CloseOnMove]");
+			lines.addAll(Metrics.describe());
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package com.heldheld.closeonmove.mixin;
+
+import com.heldheld.closeonmove.input.InputTimestamps;
+import com.heldheld.closeonmove.input.KeyRepeat;
+import com.heldheld.closeonmove.input.trace.TraceRecorder;
+import net.minecraft.client.Keyboard;
+import org.lwjgl.glfw.GLFW;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(Keyboard.class)
+public class KeyboardMixin {
+	// Timestamp key presses as they arrive from GLFW, before the game does anything with them,
+	// remember whether this is a repeat, and feed the input trace while one is being recorded
+	@Inject(at = @At("HEAD"), method = "onKey")
+	private void closeonmove$onKey(long window, int key, int scancode, int action, int modifiers, CallbackInfo info) {
+		KeyRepeat.onKey(action);
+		if (action == GLFW.GLFW_PRESS && InputTimestamps.shouldRecord()) {
+			InputTimestamps.recordPress(key, System.nanoTime());
+		}
+		if (TraceRecorder.recording) {
+			TraceRecorder.key(key, action);
+		}
+	}
+}
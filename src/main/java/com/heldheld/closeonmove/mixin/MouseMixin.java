@@ -0,0 +1,24 @@
+package com.heldheld.closeonmove.mixin;
+
+import com.heldheld.closeonmove.input.InputTimestamps;
+import com.heldheld.closeonmove.input.trace.TraceRecorder;
+import net.minecraft.client.Mouse;
+import org.lwjgl.glfw.GLFW;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(Mouse.class)
+public class MouseMixin {
+	// Timestamp mouse button presses as they arrive from GLFW and feed the input trace while one is being recorded
+	@Inject(at = @At("HEAD"), method = "onMouseButton")
+	private void closeonmove$onMouseButton(long window, int button, int action, int mods, CallbackInfo info) {
+		if (action == GLFW.GLFW_PRESS && InputTimestamps.shouldRecord()) {
+			InputTimestamps.recordPress(button, System.nanoTime());
+		}
+		if (TraceRecorder.recording) {
+			TraceRecorder.mouse(button, action);
+		}
+	}
+}
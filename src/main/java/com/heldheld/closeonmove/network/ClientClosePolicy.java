@@ -0,0 +1,83 @@
+package com.heldheld.closeonmove.network;
+
+import com.heldheld.closeonmove.config.CloseKeySet;
+import com.heldheld.closeonmove.config.Config;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.client.gui.screen.Screen;
+import net.minecraft.client.gui.screen.ingame.HandledScreen;
+import net.minecraft.registry.Registries;
+import net.minecraft.screen.ScreenHandlerType;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+// The server's close policy, compiled once per payload into identity and bitmask lookups.
+// Replaced as a whole when a payload arrives and reset when leaving the server.
+public final class ClientClosePolicy {
+    public static final ClientClosePolicy NONE = new ClientClosePolicy(false, Set.of(), CloseKeySet.EMPTY);
+
+    private static volatile ClientClosePolicy current = NONE;
+
+    private final boolean disabled;
+    private final Set<ScreenHandlerType<?>> blockedScreenHandlers;
+    private final CloseKeySet blockedKeys;
+
+    private ClientClosePolicy(boolean disabled, Set<ScreenHandlerType<?>> blockedScreenHandlers, CloseKeySet blockedKeys) {
+        this.disabled = disabled;
+        this.blockedScreenHandlers = blockedScreenHandlers;
+        this.blockedKeys = blockedKeys;
+    }
+
+    public static void register() {
+        // Play payload receivers run on the client thread
+        ClientPlayNetworking.registerGlobalReceiver(ClosePolicyPayload.ID, (payload, context) -> current = compile(payload));
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> current = NONE);
+    }
+
+    public static ClientClosePolicy current() {
+        return current;
+    }
+
+    // Unknown screen handler ids and key names are ignored, the rest of the policy still applies
+    static ClientClosePolicy compile(ClosePolicyPayload payload) {
+        Set<ScreenHandlerType<?>> screenHandlers = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Identifier id : payload.blockedScreenHandlers()) {
+            Registries.SCREEN_HANDLER.getOptionalValue(id).ifPresent(screenHandlers::add);
+        }
+
+        Config config = Config.getInstance();
+        List<Integer> keys = new ArrayList<>();
+        for (String name : payload.blockedKeys()) {
+            Integer code = config.getKeyCode(name);
+            if (code != null) {
+                keys.add(code);
+            }
+        }
+        return new ClientClosePolicy(payload.disabled(), screenHandlers, CloseKeySet.of(keys));
+    }
+
+    // Checked once per screen when its close plan is built
+    public boolean blocksScreen(Screen screen) {
+        if (disabled) {
+            return true;
+        }
+        if (blockedScreenHandlers.isEmpty() || !(screen instanceof HandledScreen<?> handledScreen)) {
+            return false;
+        }
+        try {
+            return blockedScreenHandlers.contains(handledScreen.getScreenHandler().getType());
+        } catch (UnsupportedOperationException e) {
+            // The player inventory and creative handlers have no type
+            return false;
+        }
+    }
+
+    public boolean blocksKey(int code) {
+        return blockedKeys.contains(code);
+    }
+}
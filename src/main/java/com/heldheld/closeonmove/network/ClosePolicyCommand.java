@@ -0,0 +1,108 @@
+package com.heldheld.closeonmove.network;
+
+import com.heldheld.closeonmove.config.KeyNames;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.DynamicCommandExceptionType;
+import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.command.CommandRegistryAccess;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.argument.EntityArgumentType;
+import net.minecraft.command.argument.RegistryEntryReferenceArgumentType;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+// /closeonmovepolicy <targets> clear|disable|enable|block_screen <screen handler id>|block_key <key name>
+// Lets operators (and the integrated server in singleplayer) push a close policy to players running the mod.
+public final class ClosePolicyCommand {
+    private static final DynamicCommandExceptionType UNKNOWN_KEY =
+            new DynamicCommandExceptionType(name -> Text.literal("Unknown CloseOnMove key name: " + name));
+    private static final SimpleCommandExceptionType TOO_MANY_ENTRIES = new SimpleCommandExceptionType(
+            Text.literal("A close policy can block at most " + ClosePolicyPayload.MAX_ENTRIES + " screens and keys each"));
+
+    // Last policy sent to each player, so the subcommands can add to it
+    private static final Map<UUID, ClosePolicyPayload> SENT = new ConcurrentHashMap<>();
+
+    private ClosePolicyCommand() {
+    }
+
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher, CommandRegistryAccess registryAccess) {
+        dispatcher.register(CommandManager.literal("closeonmovepolicy")
+                .requires(source -> source.hasPermissionLevel(2))
+                .then(CommandManager.argument("targets", EntityArgumentType.players())
+                        .then(CommandManager.literal("clear")
+                                .executes(context -> update(context, policy -> ClosePolicyPayload.NONE)))
+                        .then(CommandManager.literal("disable")
+                                .executes(context -> update(context, policy -> policy.withDisabled(true))))
+                        .then(CommandManager.literal("enable")
+                                .executes(context -> update(context, policy -> policy.withDisabled(false))))
+                        .then(CommandManager.literal("block_screen")
+                                .then(CommandManager.argument("type", RegistryEntryReferenceArgumentType.registryEntry(registryAccess, RegistryKeys.SCREEN_HANDLER))
+                                        .executes(context -> {
+                                            Identifier type = RegistryEntryReferenceArgumentType
+                                                    .getRegistryEntry(context, "type", RegistryKeys.SCREEN_HANDLER).registryKey().getValue();
+                                            return update(context, policy -> policy.withBlockedScreenHandler(type));
+                                        })))
+                        .then(CommandManager.literal("block_key")
+                                .then(CommandManager.argument("key", StringArgumentType.greedyString())
+                                        .suggests((context, builder) -> CommandSource.suggestMatching(KeyNames.all(), builder))
+                                        .executes(context -> {
+                                            String key = keyName(StringArgumentType.getString(context, "key"));
+                                            return update(context, policy -> policy.withBlockedKey(key));
+                                        })))));
+    }
+
+    public static void forget(ServerPlayerEntity player) {
+        SENT.remove(player.getUuid());
+    }
+
+    // The name as the config writes it; the client would silently ignore a name it doesn't know
+    private static String keyName(String name) throws CommandSyntaxException {
+        int code = KeyNames.code(name.trim());
+        if (code < 0) {
+            throw UNKNOWN_KEY.create(name);
+        }
+        return KeyNames.name(code);
+    }
+
+    private static int update(CommandContext<ServerCommandSource> context, UnaryOperator<ClosePolicyPayload> change)
+            throws CommandSyntaxException {
+        Collection<ServerPlayerEntity> players = EntityArgumentType.getPlayers(context, "targets");
+        // Every new policy is checked before any is sent, so a rejected change reaches nobody
+        List<ServerPlayerEntity> targets = new ArrayList<>();
+        List<ClosePolicyPayload> policies = new ArrayList<>();
+        for (ServerPlayerEntity player : players) {
+            if (!ServerPlayNetworking.canSend(player, ClosePolicyPayload.ID)) {
+                continue;
+            }
+            ClosePolicyPayload policy = change.apply(SENT.getOrDefault(player.getUuid(), ClosePolicyPayload.NONE));
+            if (!policy.fits()) {
+                throw TOO_MANY_ENTRIES.create();
+            }
+            targets.add(player);
+            policies.add(policy);
+        }
+        for (int i = 0; i < targets.size(); i++) {
+            SENT.put(targets.get(i).getUuid(), policies.get(i));
+            ServerPlayNetworking.send(targets.get(i), policies.get(i));
+        }
+        int count = targets.size();
+        context.getSource().sendFeedback(() -> Text.literal("Sent CloseOnMove policy to " + count + " player(s)"), true);
+        return count;
+    }
+}
@@ -0,0 +1,62 @@
+package com.heldheld.closeonmove.network;
+
+import com.heldheld.closeonmove.CloseOnMove;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Server to client: what the server allows this mod to close. Screens are screen handler type ids and keys are
+// config key names (e.g. "Space"), so the server needs neither client classes nor GLFW codes.
+// Every payload replaces the previous policy completely.
+public record ClosePolicyPayload(boolean disabled, List<Identifier> blockedScreenHandlers, List<String> blockedKeys)
+        implements CustomPayload {
+    public static final Id<ClosePolicyPayload> ID = new Id<>(Identifier.of(CloseOnMove.MOD_ID, "close_policy"));
+
+    // Bounds the lists a server can make the client decode
+    static final int MAX_ENTRIES = 256;
+
+    public static final PacketCodec<ByteBuf, ClosePolicyPayload> CODEC = PacketCodec.tuple(
+            PacketCodecs.BOOLEAN, ClosePolicyPayload::disabled,
+            Identifier.PACKET_CODEC.collect(PacketCodecs.toList(MAX_ENTRIES)), ClosePolicyPayload::blockedScreenHandlers,
+            PacketCodecs.STRING.collect(PacketCodecs.toList(MAX_ENTRIES)), ClosePolicyPayload::blockedKeys,
+            ClosePolicyPayload::new);
+
+    public static final ClosePolicyPayload NONE = new ClosePolicyPayload(false, List.of(), List.of());
+
+    // Whether the codec can encode this payload; every list is capped at MAX_ENTRIES
+    public boolean fits() {
+        return blockedScreenHandlers.size() <= MAX_ENTRIES && blockedKeys.size() <= MAX_ENTRIES;
+    }
+
+    public ClosePolicyPayload withDisabled(boolean disabled) {
+        return new ClosePolicyPayload(disabled, blockedScreenHandlers, blockedKeys);
+    }
+
+    public ClosePolicyPayload withBlockedScreenHandler(Identifier type) {
+        if (blockedScreenHandlers.contains(type)) {
+            return this;
+        }
+        List<Identifier> types = new ArrayList<>(blockedScreenHandlers);
+        types.add(type);
+        return new ClosePolicyPayload(disabled, List.copyOf(types), blockedKeys);
+    }
+
+    public ClosePolicyPayload withBlockedKey(String keyName) {
+        if (blockedKeys.contains(keyName)) {
+            return this;
+        }
+        List<String> keys = new ArrayList<>(blockedKeys);
+        keys.add(keyName);
+        return new ClosePolicyPayload(disabled, blockedScreenHandlers, List.copyOf(keys));
+    }
+
+    @Override
+    public Id<? extends CustomPayload> getId() {
+        return ID;
+    }
+}
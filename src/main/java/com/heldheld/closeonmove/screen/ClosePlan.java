@@ -0,0 +1,106 @@
+package com.heldheld.closeonmove.screen;
+
+import com.heldheld.closeonmove.config.CloseKeySet;
+import com.heldheld.closeonmove.config.CloseRules;
+import com.heldheld.closeonmove.config.CloseTriggers;
+import com.heldheld.closeonmove.config.ScreenRule;
+import com.heldheld.closeonmove.network.ClientClosePolicy;
+import net.minecraft.client.gui.screen.Screen;
+
+// Everything the close decision needs about one open screen, built once when the screen is initialized
+public final class ClosePlan {
+    // How to find out whether the player is typing in this screen
+    public enum FocusProbe {
+        NONE,
+        // The screen is a text editor, treat it as always typing
+        TEXT_ENTRY_SCREEN,
+        // Ask the mixin-maintained focus tracker
+        FOCUS_TRACKER,
+        // Mod screens may focus widgets without going through setFocused, so also scan their widgets
+        FOCUS_TRACKER_AND_SCAN
+    }
+
+    private final boolean classifiedClosable;
+    private final boolean closable;
+    private final FocusProbe focusProbe;
+    private final CloseKeySet keys;
+    private final CloseRules rules;
+    private final ClientClosePolicy policy;
+
+    private ClosePlan(boolean classifiedClosable, boolean closable, FocusProbe focusProbe, CloseKeySet keys,
+                      CloseRules rules, ClientClosePolicy policy) {
+        this.classifiedClosable = classifiedClosable;
+        this.closable = closable;
+        this.focusProbe = focusProbe;
+        this.keys = keys;
+        this.rules = rules;
+        this.policy = policy;
+    }
+
+    public static ClosePlan build(Screen screen, CloseRules rules, ClientClosePolicy policy) {
+        ScreenClassifier.ScreenClassification classification = ScreenClassifier.classify(screen);
+
+        // A matching rule overrides the classification, and may enable screens the mod doesn't know
+        ScreenRule rule = rules.resolve(screen.getClass(), classification.category());
+        boolean typeClosable = rule == null ? classification.closable() : rule.action() == ScreenRule.Action.CLOSE;
+        CloseKeySet keys = rule == null || rule.keys() == null ? rules.getDefaultKeys() : rule.keys();
+
+        if (!typeClosable || keys.isEmpty()) {
+            // Keep the rules, so a later change of the config is still noticed
+            return new ClosePlan(typeClosable, false, FocusProbe.NONE, keys, rules, policy);
+        }
+        if (policy.blocksScreen(screen)) {
+            // Still classified closable, so the input listeners are there if the server lifts the block
+            return new ClosePlan(true, false, FocusProbe.NONE, CloseKeySet.EMPTY, rules, policy);
+        }
+        FocusProbe probe;
+        if (classification.textEntry()) {
+            probe = FocusProbe.TEXT_ENTRY_SCREEN;
+        } else if (classification.vanilla()) {
+            probe = FocusProbe.FOCUS_TRACKER;
+        } else {
+            probe = FocusProbe.FOCUS_TRACKER_AND_SCAN;
+        }
+        return new ClosePlan(true, true, probe, keys, rules, policy);
+    }
+
+    // A plan for a screen that was classified elsewhere, e.g. a recorded or synthetic screen in a headless run
+    public static ClosePlan of(boolean closable, FocusProbe focusProbe, CloseKeySet keys, CloseRules rules,
+                               ClientClosePolicy policy) {
+        return closable
+                ? new ClosePlan(true, true, focusProbe, keys, rules, policy)
+                : new ClosePlan(false, false, FocusProbe.NONE, keys, rules, policy);
+    }
+
+    // Whether the screen type can be closed at all (by classification or rule), regardless of the configured keys
+    public boolean isClassifiedClosable() {
+        return classifiedClosable;
+    }
+
+    public boolean isClosable() {
+        return closable;
+    }
+
+    public FocusProbe getFocusProbe() {
+        return focusProbe;
+    }
+
+    // Close keys for this screen: the keys of its rule, or the default close keys
+    public CloseKeySet getKeys() {
+        return keys;
+    }
+
+    public CloseTriggers getTriggers() {
+        return rules.getTriggers();
+    }
+
+    // The server policy this plan was built with
+    public ClientClosePolicy getPolicy() {
+        return policy;
+    }
+
+    // The compiled config this plan was built from
+    public CloseRules getRules() {
+        return rules;
+    }
+}
@@ -0,0 +1,157 @@
+package com.heldheld.closeonmove.screen;
+
+import com.heldheld.closeonmove.debug.jfr.FocusScanEvent;
+import net.minecraft.client.gui.ParentElement;
+import net.minecraft.client.gui.widget.TextFieldWidget;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+// Looks for a focused text field anywhere in a screen's widget tree.
+// Widget fields are inspected through getters compiled once per class, so repeat scans do no reflection.
+public final class FocusedTextFieldScanner {
+    // Guards against cyclic or absurdly deep widget trees
+    private static final int MAX_DEPTH = 32;
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<MethodHandle[]> FIELD_GETTERS = new ClassValue<>() {
+        @Override
+        protected MethodHandle[] computeValue(Class<?> type) {
+            return compileGetters(type);
+        }
+    };
+
+    private static final MethodHandle[] NO_GETTERS = new MethodHandle[0];
+
+    private FocusedTextFieldScanner() {
+    }
+
+    // Widgets visited by the current scan, reported to JFR
+    private static int visitedNodes;
+
+    // Takes any ParentElement, so the close decision can be driven with synthetic screens headlessly
+    public static boolean hasFocusedTextField(ParentElement screen) {
+        FocusScanEvent event = new FocusScanEvent();
+        event.begin();
+        visitedNodes = 0;
+
+        boolean found = checkChildren(screen.children(), 0);
+
+        if (event.shouldCommit()) {
+            event.screenClass = screen.getClass();
+            event.nodesVisited = visitedNodes;
+            event.found = found;
+            event.commit();
+        }
+        return found;
+    }
+
+    // Entry point for a plain widget list, used by benchmarks with synthetic trees
+    static boolean hasFocusedTextField(List<?> children) {
+        return checkChildren(children, 0);
+    }
+
+    private static boolean checkChildren(List<?> children, int depth) {
+        for (int i = 0, size = children.size(); i < size; i++) {
+            Object child = children.get(i);
+            visitedNodes++;
+            if (isFocusedTextField(child)) {
+                return true;
+            }
+
+            // Recursively check containers that expose their own children
+            if (depth < MAX_DEPTH && child instanceof ParentElement parent && checkChildren(parent.children(), depth + 1)) {
+                return true;
+            }
+
+            // Check for any field that might contain TextFieldWidget
+            if (checkFields(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean checkFields(Object obj) {
+        MethodHandle[] getters = FIELD_GETTERS.get(obj.getClass());
+        for (MethodHandle getter : getters) {
+            Object value;
+            try {
+                value = (Object) getter.invokeExact(obj);
+            } catch (Throwable t) {
+                continue;
+            }
+
+            if (isFocusedTextField(value)) {
+                return true;
+            }
+
+            // If it's a collection, check each element
+            if (value instanceof List<?> list && list instanceof RandomAccess) {
+                for (int i = 0, size = list.size(); i < size; i++) {
+                    if (isFocusedTextField(list.get(i))) {
+                        return true;
+                    }
+                }
+            } else if (value instanceof Iterable<?> iterable) {
+                for (Object item : iterable) {
+                    if (isFocusedTextField(item)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isFocusedTextField(Object obj) {
+        return obj instanceof TextFieldWidget textField && textField.isFocused();
+    }
+
+    // Collects getters for the instance fields, up the superclass chain, whose type can hold
+    // a TextFieldWidget or an Iterable of widgets. Classes without any get the shared empty array.
+    private static MethodHandle[] compileGetters(Class<?> type) {
+        List<MethodHandle> getters = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            Field[] fields;
+            try {
+                fields = clazz.getDeclaredFields();
+            } catch (LinkageError e) {
+                // Field types refer to classes that are not present, skip this level
+                continue;
+            }
+
+            for (Field field : fields) {
+                if (Modifier.isStatic(field.getModifiers()) || !canHoldTextField(field.getType())) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    getters.add(lookup.unreflectGetter(field).asType(GETTER_TYPE));
+                } catch (RuntimeException | IllegalAccessException e) {
+                    // Field not accessible, leave it out of the plan
+                }
+            }
+        }
+
+        return getters.isEmpty() ? NO_GETTERS : getters.toArray(NO_GETTERS);
+    }
+
+    private static boolean canHoldTextField(Class<?> fieldType) {
+        if (fieldType.isPrimitive() || fieldType.isArray()) {
+            return false;
+        }
+        return fieldType.isAssignableFrom(TextFieldWidget.class)
+                || TextFieldWidget.class.isAssignableFrom(fieldType)
+                || Iterable.class.isAssignableFrom(fieldType);
+    }
+}
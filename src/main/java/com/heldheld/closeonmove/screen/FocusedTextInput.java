@@ -0,0 +1,31 @@
+package com.heldheld.closeonmove.screen;
+
+import net.minecraft.client.gui.widget.ClickableWidget;
+
+// The text input that currently has keyboard focus, kept up to date by ClickableWidgetMixin.
+// Only touched on the render thread.
+public final class FocusedTextInput {
+    private static ClickableWidget current;
+
+    private FocusedTextInput() {
+    }
+
+    public static void onFocusChanged(ClickableWidget widget, boolean focused) {
+        if (focused) {
+            current = widget;
+        } else if (current == widget) {
+            current = null;
+        }
+    }
+
+    // A hidden widget can keep its focus flag (e.g. the creative search box on other tabs), so check visibility too
+    public static boolean isTyping() {
+        ClickableWidget widget = current;
+        return widget != null && widget.visible && widget.isFocused();
+    }
+
+    // Called before a screen (re)builds its widgets and when it is removed, so stale widgets are not held on to
+    public static void clear() {
+        current = null;
+    }
+}
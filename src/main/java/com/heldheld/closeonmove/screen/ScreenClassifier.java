@@ -0,0 +1,53 @@
+package com.heldheld.closeonmove.screen;
+
+import com.heldheld.closeonmove.debug.Metrics;
+import com.heldheld.closeonmove.debug.jfr.ScreenClassifiedEvent;
+import net.minecraft.client.gui.screen.Screen;
+
+// Decides once per screen class whether it can be closed; results are memoized per Class
+public final class ScreenClassifier {
+    private static final ClassValue<ScreenClassification> CACHE = new ClassValue<>() {
+        @Override
+        protected ScreenClassification computeValue(Class<?> type) {
+            if (Metrics.enabled) {
+                Metrics.classificationCacheMisses++;
+            }
+            return compute(type);
+        }
+    };
+
+    private ScreenClassifier() {
+    }
+
+    public static ScreenClassification classify(Screen screen) {
+        if (Metrics.enabled) {
+            Metrics.classifications++;
+        }
+        ScreenClassification classification = CACHE.get(screen.getClass());
+
+        ScreenClassifiedEvent event = new ScreenClassifiedEvent();
+        if (event.isEnabled()) {
+            event.screenClass = screen.getClass();
+            event.category = classification.category().name();
+            event.closable = classification.closable();
+            event.commit();
+        }
+        return classification;
+    }
+
+    private static ScreenClassification compute(Class<?> type) {
+        ScreenRegistry.Category category = ScreenRegistry.lookup(type);
+        boolean modClass = !ScreenRegistry.isMinecraftClass(type);
+
+        // Mod screens keep their real names at runtime, so the old package fallback still works for them
+        if (category == ScreenRegistry.Category.UNKNOWN && modClass && type.getPackageName().contains("ingame")) {
+            category = ScreenRegistry.Category.OTHER;
+        }
+
+        return new ScreenClassification(category, category != ScreenRegistry.Category.UNKNOWN,
+                category == ScreenRegistry.Category.TEXT_EDITOR, !modClass);
+    }
+
+    public record ScreenClassification(ScreenRegistry.Category category, boolean closable, boolean textEntry, boolean vanilla) {
+    }
+}
@@ -0,0 +1,130 @@
+package com.heldheld.closeonmove.screen;
+
+import net.minecraft.client.gui.screen.Screen;
+import net.minecraft.client.gui.screen.advancement.AdvancementsScreen;
+import net.minecraft.client.gui.screen.ingame.AbstractCommandBlockScreen;
+import net.minecraft.client.gui.screen.ingame.AbstractSignEditScreen;
+import net.minecraft.client.gui.screen.ingame.AnvilScreen;
+import net.minecraft.client.gui.screen.ingame.BeaconScreen;
+import net.minecraft.client.gui.screen.ingame.BlastFurnaceScreen;
+import net.minecraft.client.gui.screen.ingame.BookEditScreen;
+import net.minecraft.client.gui.screen.ingame.BookScreen;
+import net.minecraft.client.gui.screen.ingame.BrewingStandScreen;
+import net.minecraft.client.gui.screen.ingame.CartographyTableScreen;
+import net.minecraft.client.gui.screen.ingame.CrafterScreen;
+import net.minecraft.client.gui.screen.ingame.CraftingScreen;
+import net.minecraft.client.gui.screen.ingame.CreativeInventoryScreen;
+import net.minecraft.client.gui.screen.ingame.EnchantmentScreen;
+import net.minecraft.client.gui.screen.ingame.FurnaceScreen;
+import net.minecraft.client.gui.screen.ingame.Generic3x3ContainerScreen;
+import net.minecraft.client.gui.screen.ingame.GenericContainerScreen;
+import net.minecraft.client.gui.screen.ingame.GrindstoneScreen;
+import net.minecraft.client.gui.screen.ingame.HandledScreen;
+import net.minecraft.client.gui.screen.ingame.HopperScreen;
+import net.minecraft.client.gui.screen.ingame.HorseScreen;
+import net.minecraft.client.gui.screen.ingame.InventoryScreen;
+import net.minecraft.client.gui.screen.ingame.JigsawBlockScreen;
+import net.minecraft.client.gui.screen.ingame.LecternScreen;
+import net.minecraft.client.gui.screen.ingame.LoomScreen;
+import net.minecraft.client.gui.screen.ingame.MerchantScreen;
+import net.minecraft.client.gui.screen.ingame.ShulkerBoxScreen;
+import net.minecraft.client.gui.screen.ingame.SmithingScreen;
+import net.minecraft.client.gui.screen.ingame.SmokerScreen;
+import net.minecraft.client.gui.screen.ingame.StonecutterScreen;
+import net.minecraft.client.gui.screen.ingame.StructureBlockScreen;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Known vanilla screen classes, keyed by Class identity.
+// Class literals are remapped by Loom at build time, so this table resolves the same classes under
+// yarn names in dev and intermediary names in production, unlike checks on class or package names.
+public final class ScreenRegistry {
+    public enum Category {
+        // Any HandledScreen: inventory, chests, crafting tables, etc.
+        CONTAINER,
+        ADVANCEMENTS,
+        BOOK,
+        // Screens that always have text input active (book and sign editors)
+        TEXT_EDITOR,
+        // Block configuration screens with text fields (command, structure and jigsaw blocks)
+        BLOCK_EDITOR,
+        // Third-party screens that look like in-game screens
+        OTHER,
+        UNKNOWN
+    }
+
+    private static final Map<Class<?>, Category> CATEGORIES = new IdentityHashMap<>();
+    // Stable, mapping-independent names for vanilla screens, used by per-screen rules in the config.
+    // Books and advancements are matched by their category names.
+    private static final Map<String, Class<? extends Screen>> TYPES = new HashMap<>();
+
+    static {
+        register(HandledScreen.class, Category.CONTAINER);
+        register(AdvancementsScreen.class, Category.ADVANCEMENTS);
+        register(BookScreen.class, Category.BOOK);
+        register(BookEditScreen.class, Category.TEXT_EDITOR);
+        register(AbstractSignEditScreen.class, Category.TEXT_EDITOR);
+        register(AbstractCommandBlockScreen.class, Category.BLOCK_EDITOR);
+        register(StructureBlockScreen.class, Category.BLOCK_EDITOR);
+        register(JigsawBlockScreen.class, Category.BLOCK_EDITOR);
+
+        registerType("inventory", InventoryScreen.class);
+        registerType("creative_inventory", CreativeInventoryScreen.class);
+        registerType("chest", GenericContainerScreen.class);
+        registerType("shulker_box", ShulkerBoxScreen.class);
+        registerType("dispenser", Generic3x3ContainerScreen.class);
+        registerType("hopper", HopperScreen.class);
+        registerType("crafting_table", CraftingScreen.class);
+        registerType("crafter", CrafterScreen.class);
+        registerType("furnace", FurnaceScreen.class);
+        registerType("blast_furnace", BlastFurnaceScreen.class);
+        registerType("smoker", SmokerScreen.class);
+        registerType("anvil", AnvilScreen.class);
+        registerType("enchanting_table", EnchantmentScreen.class);
+        registerType("brewing_stand", BrewingStandScreen.class);
+        registerType("beacon", BeaconScreen.class);
+        registerType("grindstone", GrindstoneScreen.class);
+        registerType("loom", LoomScreen.class);
+        registerType("cartography_table", CartographyTableScreen.class);
+        registerType("smithing_table", SmithingScreen.class);
+        registerType("stonecutter", StonecutterScreen.class);
+        registerType("merchant", MerchantScreen.class);
+        registerType("horse", HorseScreen.class);
+        registerType("lectern", LecternScreen.class);
+    }
+
+    private ScreenRegistry() {
+    }
+
+    private static void register(Class<? extends Screen> type, Category category) {
+        CATEGORIES.put(type, category);
+    }
+
+    private static void registerType(String name, Class<? extends Screen> type) {
+        TYPES.put(name, type);
+    }
+
+    // Resolves a screen type name from the config, case-insensitively; null for unknown names
+    public static Class<? extends Screen> findType(String name) {
+        return TYPES.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    // Finds the category of the closest registered class in the hierarchy, with one identity probe per level
+    public static Category lookup(Class<?> type) {
+        for (Class<?> c = type; c != null && c != Screen.class; c = c.getSuperclass()) {
+            Category category = CATEGORIES.get(c);
+            if (category != null) {
+                return category;
+            }
+        }
+        return Category.UNKNOWN;
+    }
+
+    // Vanilla classes have obfuscated names in production, so name heuristics only apply to mod classes
+    public static boolean isMinecraftClass(Class<?> type) {
+        return type.getName().startsWith("net.minecraft.");
+    }
+}